@@ -0,0 +1,98 @@
+package net.hollowcube.polar;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * A thread safe map of chunk index to chunk, used by {@link PolarWorld}.
+ * <p>
+ * Chunks are spread over a fixed number of independently locked stripes, so that chunks saved concurrently
+ * rarely contend with each other or with readers. Iteration locks one stripe at a time, so it is not atomic: a chunk
+ * put while iterating may or may not be seen, but every chunk seen is complete since chunks are immutable.
+ */
+final class ChunkMap {
+    private static final int STRIPES = 64; // Power of two
+
+    @SuppressWarnings("unchecked")
+    private final Long2ObjectOpenHashMap<PolarChunk>[] stripes = new Long2ObjectOpenHashMap[STRIPES];
+
+    ChunkMap() {
+        for (int i = 0; i < STRIPES; i++)
+            stripes[i] = new Long2ObjectOpenHashMap<>();
+    }
+
+    @Nullable PolarChunk get(long index) {
+        var stripe = stripe(index);
+        synchronized (stripe) {
+            return stripe.get(index);
+        }
+    }
+
+    void put(long index, @NotNull PolarChunk chunk) {
+        var stripe = stripe(index);
+        synchronized (stripe) {
+            stripe.put(index, chunk);
+        }
+    }
+
+    /**
+     * Replaces every chunk with the result of the given function, one stripe at a time.
+     */
+    void replaceAll(@NotNull UnaryOperator<PolarChunk> function) {
+        for (var stripe : stripes) {
+            synchronized (stripe) {
+                for (var entry : stripe.long2ObjectEntrySet())
+                    entry.setValue(function.apply(entry.getValue()));
+            }
+        }
+    }
+
+    void clear() {
+        for (var stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (var stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns a new list of the chunks in the map, copied one stripe at a time.
+     */
+    @NotNull List<PolarChunk> values() {
+        var values = new ArrayList<PolarChunk>();
+        forEach(values::add);
+        return values;
+    }
+
+    /**
+     * Calls the consumer for each chunk in the map, while holding the lock of its stripe.
+     */
+    void forEach(@NotNull Consumer<PolarChunk> consumer) {
+        for (var stripe : stripes) {
+            synchronized (stripe) {
+                stripe.values().forEach(consumer);
+            }
+        }
+    }
+
+    private @NotNull Long2ObjectOpenHashMap<PolarChunk> stripe(long index) {
+        return stripes[(int) HashCommon.mix(index) & (STRIPES - 1)];
+    }
+}
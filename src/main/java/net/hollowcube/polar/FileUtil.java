@@ -0,0 +1,35 @@
+package net.hollowcube.polar;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+final class FileUtil {
+    private FileUtil() {}
+
+    /**
+     * Atomically replaces {@code target} with {@code source}, which must already be synced to disk. The parent
+     * directory is synced afterward so that the rename itself survives a crash.
+     */
+    public static void replace(@NotNull Path source, @NotNull Path target) throws IOException {
+        Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Syncs the given directory to disk, where the platform allows it. Some platforms (such as Windows) cannot
+     * open a directory, in which case nothing is done.
+     */
+    public static void syncDirectory(@NotNull Path directory) {
+        try (var channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // Not supported on this platform or file system
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package net.hollowcube.polar;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Deduplicates identical light arrays, which are very common (eg sky light above flat areas), so that every world
+ * in memory shares one instance of each.
+ * <p>
+ * The interner is a fixed size direct mapped cache keyed by the content hash, so it never holds more than a few
+ * megabytes. Arrays which collide with another are simply not deduplicated. Interned arrays must never be mutated,
+ * which matches how they are used by {@link PolarSection} and Minestom.
+ */
+final class LightArrayInterner {
+    private static final int SLOTS = 2048; // Power of two
+    private static final AtomicReferenceArray<byte[]> CANONICAL = new AtomicReferenceArray<>(SLOTS);
+
+    private LightArrayInterner() {
+    }
+
+    /**
+     * Returns the canonical instance of the given light array. If there is none yet, a copy of the array becomes
+     * the canonical instance, so the caller may keep modifying its array (eg the live light of a Minestom section).
+     */
+    @Contract("null -> null; !null -> !null")
+    static byte @Nullable [] intern(byte @Nullable [] light) {
+        return intern(light, false);
+    }
+
+    /**
+     * Same as {@link #intern(byte[])}, for arrays which nothing else refers to (eg freshly read from a file).
+     * The array itself becomes the canonical instance if there is none yet.
+     */
+    @Contract("null -> null; !null -> !null")
+    static byte @Nullable [] internOwned(byte @Nullable [] light) {
+        return intern(light, true);
+    }
+
+    private static byte @Nullable [] intern(byte @Nullable [] light, boolean owned) {
+        if (light == null) return null;
+
+        int hash = Arrays.hashCode(light);
+        int slot = (hash ^ (hash >>> 16)) & (SLOTS - 1);
+        var canonical = CANONICAL.get(slot);
+        if (canonical == light) return light;
+        if (canonical != null && Arrays.equals(canonical, light)) return canonical;
+
+        // Most recent wins, this keeps common arrays resident as long as they keep appearing
+        var interned = owned ? light : light.clone();
+        CANONICAL.set(slot, interned);
+        return interned;
+    }
+}
@@ -0,0 +1,40 @@
+package net.hollowcube.polar;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * Assigns palette indices to ids (block states or biomes) in the order they are first seen, used when saving a
+ * section. Reused across sections, see {@link #clear()}.
+ */
+final class PaletteBuilder {
+    private final Int2IntOpenHashMap indices = new Int2IntOpenHashMap();
+    private final IntArrayList ids = new IntArrayList();
+
+    PaletteBuilder() {
+        indices.defaultReturnValue(-1);
+    }
+
+    /**
+     * Returns the palette index of the given id, adding it to the palette if not present.
+     */
+    int indexOf(int id) {
+        int index = indices.putIfAbsent(id, ids.size());
+        if (index != -1) return index;
+        ids.add(id);
+        return ids.size() - 1;
+    }
+
+    int size() {
+        return ids.size();
+    }
+
+    int id(int index) {
+        return ids.getInt(index);
+    }
+
+    void clear() {
+        indices.clear();
+        ids.clear();
+    }
+}
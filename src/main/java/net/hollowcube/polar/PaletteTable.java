@@ -0,0 +1,110 @@
+package net.hollowcube.polar;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A world level table of palette entries (block states or biomes), referenced by index from every section
+ * since {@link PolarWorld#VERSION_PALETTE_TABLE}.
+ * <p>
+ * The table is append only so that indices remain stable. This allows chunk data to be copied between files sharing
+ * a table prefix without being decoded, see {@link #startsWith(PaletteTable)}. Unused entries are instead removed by
+ * replacing the table of the world, see {@link PolarWorld#removeUnusedPaletteEntries()}.
+ */
+final class PaletteTable {
+    private final List<String> entries = new ArrayList<>();
+    private final Object2IntMap<String> indices = new Object2IntOpenHashMap<>();
+
+    PaletteTable() {
+        indices.defaultReturnValue(-1);
+    }
+
+    /**
+     * Creates a table with the given entries at their exact positions. Duplicate entries are kept (they may
+     * occur after data conversion), lookups resolve to the first occurrence.
+     */
+    PaletteTable(String @NotNull [] entries) {
+        this();
+        for (var entry : entries) {
+            indices.putIfAbsent(entry, this.entries.size());
+            this.entries.add(entry);
+        }
+    }
+
+    /**
+     * Returns the index of the given entry, adding it to the end of the table if not present.
+     */
+    synchronized int indexOf(@NotNull String entry) {
+        int index = indices.getInt(entry);
+        if (index == -1) {
+            index = entries.size();
+            entries.add(entry);
+            indices.put(entry, index);
+        }
+        return index;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized String @NotNull [] toArray() {
+        return entries.toArray(String[]::new);
+    }
+
+    /**
+     * Returns a read only copy of the table as it is now, which can be shared between threads without locking.
+     */
+    synchronized @NotNull Frozen freeze() {
+        var frozenIndices = new Object2IntOpenHashMap<>(indices);
+        frozenIndices.defaultReturnValue(-1);
+        return new Frozen(entries.toArray(String[]::new), frozenIndices);
+    }
+
+    /**
+     * Returns true if every entry of {@code other} is present at the same index in this table.
+     */
+    boolean startsWith(@NotNull PaletteTable other) {
+        if (other == this) return true;
+        var prefix = other.toArray();
+        synchronized (this) {
+            if (prefix.length > entries.size()) return false;
+            for (int i = 0; i < prefix.length; i++) {
+                if (!prefix[i].equals(entries.get(i))) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns a copy of the table with only the used entries (and no duplicates), or null if every entry is used.
+     * Entries are removed from {@code used} as they are retained.
+     */
+    @Nullable PaletteTable retain(@NotNull Set<String> used) {
+        var entries = toArray();
+        var retained = new ArrayList<String>(entries.length);
+        for (var entry : entries) {
+            // Removed once retained, so that only the first of any duplicate entries is kept
+            if (used.remove(entry)) retained.add(entry);
+        }
+        return retained.size() == entries.length ? null : new PaletteTable(retained.toArray(String[]::new));
+    }
+
+    record Frozen(String @NotNull [] entries, @NotNull Object2IntMap<String> indices) {
+
+        /**
+         * Returns the index of the given entry, which must already be in the table.
+         */
+        int indexOf(@NotNull String entry) {
+            int index = indices.getInt(entry);
+            if (index == -1) throw new IllegalStateException("Palette entry missing from table: " + entry);
+            return index;
+        }
+    }
+}
@@ -10,19 +10,22 @@ final class PaletteUtil {
         return Integer.SIZE - Integer.numberOfLeadingZeros(n);
     }
 
+    // Entries never span two longs, so each long holds 64 / bitsPerEntry entries and the remaining high bits are
+    // unused. Both loops below walk the longs in order, keeping the division out of the per entry work.
+
     public static long[] pack(int[] ints, int bitsPerEntry) {
-        int intsPerLong = (int) Math.floor(64d / bitsPerEntry);
-        long[] longs = new long[(int) Math.ceil(ints.length / (double) intsPerLong)];
+        int intsPerLong = 64 / bitsPerEntry;
+        long[] longs = new long[(ints.length + intsPerLong - 1) / intsPerLong];
 
         long mask = (1L << bitsPerEntry) - 1L;
+        int intIndex = 0;
         for (int i = 0; i < longs.length; i++) {
-            for (int intIndex = 0; intIndex < intsPerLong; intIndex++) {
-                int bitIndex = intIndex * bitsPerEntry;
-                int intActualIndex = intIndex + i * intsPerLong;
-                if (intActualIndex < ints.length) {
-                    longs[i] |= (ints[intActualIndex] & mask) << bitIndex;
-                }
+            int end = Math.min(intIndex + intsPerLong, ints.length);
+            long value = 0;
+            for (int bitIndex = 0; intIndex < end; intIndex++, bitIndex += bitsPerEntry) {
+                value |= (ints[intIndex] & mask) << bitIndex;
             }
+            longs[i] = value;
         }
 
         return longs;
@@ -31,15 +34,15 @@ final class PaletteUtil {
     public static void unpack(int[] out, long[] in, int bitsPerEntry) {
         assert in.length != 0: "unpack input array is zero";
 
-        var intsPerLong = Math.floor(64d / bitsPerEntry);
-        var intsPerLongCeil = (int) Math.ceil(intsPerLong);
-
-        long mask = (1L << bitsPerEntry) - 1L;
-        for (int i = 0; i < out.length; i++) {
-            int longIndex = i / intsPerLongCeil;
-            int subIndex = i % intsPerLongCeil;
-
-            out[i] = (int) ((in[longIndex] >>> (bitsPerEntry * subIndex)) & mask);
+        int intsPerLong = 64 / bitsPerEntry;
+        int mask = (int) ((1L << bitsPerEntry) - 1L);
+        int outIndex = 0;
+        for (int i = 0; outIndex < out.length; i++) {
+            long value = in[i];
+            int end = Math.min(outIndex + intsPerLong, out.length);
+            for (; outIndex < end; outIndex++, value >>>= bitsPerEntry) {
+                out[outIndex] = (int) value & mask;
+            }
         }
     }
 }
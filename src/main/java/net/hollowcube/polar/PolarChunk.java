@@ -5,6 +5,7 @@ import net.kyori.adventure.nbt.CompoundBinaryTag;
 import net.minestom.server.instance.Chunk;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -38,8 +39,28 @@ public record PolarChunk(
     static final int HEIGHTMAP_SIZE = Chunk.CHUNK_SIZE_X * Chunk.CHUNK_SIZE_Z;
     static final int MAX_HEIGHTMAPS = 32;
 
+    private static final int[][] NO_HEIGHTMAPS = new int[0][];
+
+    public PolarChunk {
+        // Only a few of the possible heightmaps are ever present, so the trailing missing ones are not stored.
+        int length = heightmaps.length;
+        while (length > 0 && heightmaps[length - 1] == null) length--;
+        heightmaps = length == 0 ? NO_HEIGHTMAPS : Arrays.copyOf(heightmaps, length);
+    }
+
+    /**
+     * Returns every heightmap, indexed by type. Missing heightmaps are null.
+     * <p>
+     * The table is expanded from the stored (sparse) heightmaps on every call, prefer {@link #heightmap(int)}
+     * to look up a single type.
+     */
+    @Override
+    public int[][] heightmaps() {
+        return Arrays.copyOf(heightmaps, MAX_HEIGHTMAPS);
+    }
+
     public int @Nullable [] heightmap(int type) {
-        return heightmaps[type];
+        return type < heightmaps.length ? heightmaps[type] : null;
     }
 
     public record BlockEntity(
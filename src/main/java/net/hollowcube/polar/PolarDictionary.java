@@ -0,0 +1,97 @@
+package net.hollowcube.polar;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A zstd dictionary used by {@link PolarWorld.CompressionType#ZSTD_DICTIONARY}.
+ * <p>
+ * Dictionaries significantly improve compression of small worlds which share most of their content (eg block
+ * palettes), such as many user generated worlds built from the same set of blocks. Only the dictionary ID is
+ * stored in the world, so the same dictionary must be registered with {@link PolarReader#registerDictionary(PolarDictionary)}
+ * to read it again.
+ */
+public final class PolarDictionary {
+
+    /**
+     * Trains a new dictionary from the given sample worlds. Generally many (hundreds or more) worlds are required
+     * for a useful dictionary.
+     *
+     * @param worlds         The sample worlds, should be representative of the worlds the dictionary will be used for
+     * @param dictionarySize The maximum size of the dictionary in bytes, 100kb is a reasonable default
+     * @return The trained dictionary
+     */
+    public static @NotNull PolarDictionary train(@NotNull Collection<PolarWorld> worlds, int dictionarySize) {
+        var samples = new ArrayList<byte[]>(worlds.size());
+        long totalSize = 0;
+        for (var world : worlds) {
+            var sample = PolarWriter.writeContent(world, PolarDataConverter.NOOP, null);
+            samples.add(sample);
+            totalSize += sample.length;
+        }
+
+        var trainer = new ZstdDictTrainer((int) Math.min(totalSize, Integer.MAX_VALUE), dictionarySize);
+        for (var sample : samples) {
+            if (!trainer.addSample(sample)) break;
+        }
+        return of(trainer.trainSamples());
+    }
+
+    /**
+     * Creates a dictionary from the given zstd dictionary data, for example one previously returned by {@link #data()}.
+     *
+     * @param data The dictionary data, must be in the zstd dictionary format (containing a dictionary ID)
+     * @return The dictionary
+     */
+    public static @NotNull PolarDictionary of(byte @NotNull [] data) {
+        int id = (int) Zstd.getDictIdFromDict(data);
+        if (id == 0) throw new IllegalArgumentException("Dictionary has no ID, raw content dictionaries are not supported");
+        return new PolarDictionary(id, data);
+    }
+
+    private final int id;
+    private final byte[] data;
+
+    // Digested forms are created lazily, they are only needed for either compression or decompression.
+    private volatile ZstdDictCompress compressDict;
+    private volatile ZstdDictDecompress decompressDict;
+
+    private PolarDictionary(int id, byte @NotNull [] data) {
+        this.id = id;
+        this.data = data;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public byte @NotNull [] data() {
+        return data.clone();
+    }
+
+    byte @NotNull [] compress(byte @NotNull [] content) {
+        return Zstd.compress(content, compressDict());
+    }
+
+    byte @NotNull [] decompress(byte @NotNull [] compressed, int length) {
+        return Zstd.decompress(compressed, decompressDict(), length);
+    }
+
+    @NotNull ZstdDictCompress compressDict() {
+        var dict = compressDict;
+        if (dict == null) compressDict = dict = new ZstdDictCompress(data, Zstd.defaultCompressionLevel());
+        return dict;
+    }
+
+    @NotNull ZstdDictDecompress decompressDict() {
+        var dict = decompressDict;
+        if (dict == null) decompressDict = dict = new ZstdDictDecompress(data);
+        return dict;
+    }
+}
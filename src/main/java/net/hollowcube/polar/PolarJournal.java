@@ -0,0 +1,152 @@
+package net.hollowcube.polar;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import static net.hollowcube.polar.PolarLoader.logger;
+
+/**
+ * An append only journal of saved chunks, stored next to a polar world as {@code <world>.journal}.
+ * <p>
+ * Each record is a complete (small) polar world containing the chunks of a single save, along with the world
+ * user data at that time. Replaying the journal in order on top of the base world yields the latest saved state,
+ * since a later record always contains a newer state of its chunks. A record which was only partially written
+ * (eg because of a crash) is ignored, and overwritten by the next append.
+ *
+ * <p>Journal format: magic number (int, {@code Pjnl}), version (short), then records of
+ * length (int), CRC32 of the data (int), data (polar world).</p>
+ */
+final class PolarJournal {
+    static final int MAGIC_NUMBER = 0x506A6E6C; // `Pjnl`
+    static final short VERSION = 1;
+
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+
+    static @NotNull Path journalPath(@NotNull Path savePath) {
+        return savePath.resolveSibling(savePath.getFileName() + ".journal");
+    }
+
+    private final Path path;
+    // Length of the valid part of the journal, anything after it is an incomplete record.
+    private long size = 0;
+
+    PolarJournal(@NotNull Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns the number of bytes of valid records in the journal, or zero if there is no journal.
+     */
+    synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Applies every record in the journal to the given world, in order.
+     *
+     * @return the number of records applied
+     */
+    synchronized int replay(@NotNull PolarWorld world) throws IOException {
+        if (!Files.exists(path)) return 0;
+
+        var data = Files.readAllBytes(path);
+        var buffer = ByteBuffer.wrap(data);
+        if (data.length < HEADER_SIZE || buffer.getInt() != MAGIC_NUMBER || buffer.getShort() != VERSION) {
+            logger.warn("Ignoring invalid polar journal {}", path);
+            return 0;
+        }
+
+        int records = 0;
+        this.size = HEADER_SIZE;
+        while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+            int length = buffer.getInt(), checksum = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) break;
+
+            var crc = new CRC32();
+            crc.update(data, buffer.position(), length);
+            if ((int) crc.getValue() != checksum) break;
+
+            var record = new byte[length];
+            buffer.get(record);
+            apply(world, PolarReader.read(record));
+            records++;
+            this.size = buffer.position();
+        }
+
+        if (size < data.length)
+            logger.warn("Ignoring {} bytes of incomplete records at the end of polar journal {}", data.length - size, path);
+        return records;
+    }
+
+    /**
+     * Appends a record containing the given world (usually a subset of the chunks of the full world).
+     */
+    synchronized void append(@NotNull PolarWorld record) throws IOException {
+        var data = PolarWriter.write(record, PolarDataConverter.NOOP, null, false);
+        var crc = new CRC32();
+        crc.update(data);
+
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (size == 0) {
+                writeFully(channel, ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC_NUMBER).putShort(VERSION).flip(), 0);
+                size = HEADER_SIZE;
+            }
+            // Drop any incomplete record left over from a previous failure
+            channel.truncate(size);
+
+            var recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE).putInt(data.length).putInt((int) crc.getValue()).flip();
+            writeFully(channel, recordHeader, size);
+            writeFully(channel, ByteBuffer.wrap(data), size + RECORD_HEADER_SIZE);
+            channel.force(false);
+        }
+        size += RECORD_HEADER_SIZE + data.length;
+    }
+
+    /**
+     * Removes every record before the given offset, which must be the size of the journal at some point in time.
+     * Used after compacting the journal into the world, records written since then are kept.
+     */
+    synchronized void truncateBefore(long offset) throws IOException {
+        if (offset >= size) {
+            Files.deleteIfExists(path);
+            size = 0;
+            return;
+        }
+
+        long remaining = size - offset;
+        var tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (var src = FileChannel.open(path, StandardOpenOption.READ);
+             var dst = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(dst, ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC_NUMBER).putShort(VERSION).flip(), 0);
+            long copied = 0;
+            while (copied < remaining)
+                copied += src.transferTo(offset + copied, remaining - copied, dst.position(HEADER_SIZE + copied));
+            dst.force(true);
+        }
+        FileUtil.replace(tempPath, path);
+        size = HEADER_SIZE + remaining;
+    }
+
+    private static void apply(@NotNull PolarWorld world, @NotNull PolarWorld record) {
+        world.userData(record.userData());
+        record.forEachChunk(chunk -> {
+            if (record.minSection() != world.minSection() || record.maxSection() != world.maxSection())
+                chunk = WorldHeightUtil.updateChunkHeight(chunk, world.minSection(), world.maxSection());
+            world.updateChunkAt(chunk.x(), chunk.z(), chunk);
+        });
+    }
+
+    private static void writeFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+}
@@ -1,11 +1,12 @@
 package net.hollowcube.polar;
 
-import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
-import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.hollowcube.polar.PolarSection.LightContent;
 import net.minestom.server.MinecraftServer;
-import net.minestom.server.command.builder.arguments.minecraft.ArgumentBlockState;
-import net.minestom.server.command.builder.exception.ArgumentSyntaxException;
+import net.minestom.server.coordinate.CoordConversion;
 import net.minestom.server.exception.ExceptionManager;
 import net.minestom.server.instance.*;
 import net.minestom.server.instance.block.Block;
@@ -23,6 +24,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -30,6 +35,8 @@ import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static net.minestom.server.instance.Chunk.CHUNK_SECTION_SIZE;
@@ -39,6 +46,13 @@ public class PolarLoader implements ChunkLoader {
     static final Logger logger = LoggerFactory.getLogger(PolarLoader.class);
     private static final BlockManager BLOCK_MANAGER = MinecraftServer.getBlockManager();
     private static final ExceptionManager EXCEPTION_HANDLER = MinecraftServer.getExceptionManager();
+    private static final long MIN_COMPACTION_SIZE = 1024 * 1024;
+    private static final Comparator<PolarChunk.BlockEntity> BLOCK_ENTITY_ORDER = Comparator
+            .comparingInt(PolarChunk.BlockEntity::y)
+            .thenComparingInt(PolarChunk.BlockEntity::z)
+            .thenComparingInt(PolarChunk.BlockEntity::x);
+    private static final Executor SAVE_EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("polar-save-", 0).factory());
 
     /**
      * Loads a polar world into an instance in a streaming manner.
@@ -57,13 +71,54 @@ public class PolarLoader implements ChunkLoader {
             @Nullable PolarDataConverter dataConverter,
             @Nullable PolarWorldAccess worldAccess,
             boolean loadLighting) {
+        return streamLoad(instance, is, fileSize, dataConverter, worldAccess, loadLighting, false);
+    }
+
+    /**
+     * Loads a polar world into an instance in a streaming manner, see
+     * {@link #streamLoad(InstanceContainer, ReadableByteChannel, long, PolarDataConverter, PolarWorldAccess, boolean)}.
+     *
+     * <p>When parallel, chunks are split apart as they are read and built by a pool of workers, then added to the
+     * instance in order. This requires chunks to be length prefixed ({@link PolarWorld.CompressionType#ZSTD_CHUNKED}
+     * or version 8 and newer), older worlds are loaded sequentially. As with {@link #setParallel(boolean)}, the world
+     * access and data converter must support being called concurrently.</p>
+     *
+     * @param parallel True to build chunks in parallel, false to build them all on one thread.
+     * @return A future that completes when the world has been fully loaded.
+     */
+    @ApiStatus.Experimental
+    public static @NotNull CompletableFuture<Void> streamLoad(
+            @NotNull InstanceContainer instance, @NotNull ReadableByteChannel is, long fileSize,
+            @Nullable PolarDataConverter dataConverter,
+            @Nullable PolarWorldAccess worldAccess,
+            boolean loadLighting, boolean parallel) {
+        return streamLoad(instance, is, fileSize, dataConverter, worldAccess, loadLighting, parallel, ChunkSelector.all());
+    }
+
+    /**
+     * Loads the chunks accepted by the given selector from a polar world into an instance in a streaming manner, see
+     * {@link #streamLoad(InstanceContainer, ReadableByteChannel, long, PolarDataConverter, PolarWorldAccess, boolean, boolean)}.
+     *
+     * <p>Unselected chunks are skipped using their length prefix where possible (see
+     * {@link PolarReader#read(byte[], PolarDataConverter, ChunkSelector)}), and are never added to the instance.</p>
+     *
+     * @param selector The chunks to load
+     * @return A future that completes when the selected chunks have been loaded.
+     */
+    @ApiStatus.Experimental
+    public static @NotNull CompletableFuture<Void> streamLoad(
+            @NotNull InstanceContainer instance, @NotNull ReadableByteChannel is, long fileSize,
+            @Nullable PolarDataConverter dataConverter,
+            @Nullable PolarWorldAccess worldAccess,
+            boolean loadLighting, boolean parallel,
+            @NotNull ChunkSelector selector) {
         final var loader = new StreamingPolarLoader(instance,
                 Objects.requireNonNullElse(dataConverter, PolarDataConverter.NOOP),
-                worldAccess, loadLighting);
+                worldAccess, loadLighting, selector);
         final var future = new CompletableFuture<Void>();
         Thread.startVirtualThread(() -> {
             try {
-                loader.loadAllSequential(is, fileSize);
+                loader.loadAll(is, fileSize, parallel);
                 future.complete(null);
             } catch (Throwable e) {
                 future.completeExceptionally(e);
@@ -72,38 +127,105 @@ public class PolarLoader implements ChunkLoader {
         return future;
     }
 
+    /**
+     * Opens a polar world for random access, reading chunks from disk only when they are requested.
+     *
+     * <p>Unlike {@link #PolarLoader(Path)}, the world is never fully read into memory which allows for worlds
+     * larger than would be reasonable to keep in memory. Only chunks which have been saved but not yet written to
+     * disk are kept in {@link #world()}. Only uncompressed and {@link PolarWorld.CompressionType#ZSTD_CHUNKED} worlds
+     * can be read randomly, worlds compressed as a single zstd frame must be converted first.</p>
+     *
+     * <p>Worlds written before chunk indices were added to the format are read in full as a fallback.</p>
+     *
+     * @param path The path of the polar world, which will also be used for saving.
+     * @return A loader reading from the given world
+     * @throws IOException If the world could not be opened
+     * @throws PolarReader.Error If the world is compressed as a single zstd frame
+     */
+    @ApiStatus.Experimental
+    public static @NotNull PolarLoader randomAccess(@NotNull Path path) throws IOException {
+        if (!Files.exists(path)) return new PolarLoader(path, new PolarWorld());
+
+        var chunkSource = RandomAccessPolarReader.open(path, PolarDataConverter.NOOP);
+        if (chunkSource == null) return new PolarLoader(path);
+        return new PolarLoader(path, chunkSource.world(), chunkSource);
+    }
+
     private final Map<String, Integer> biomeReadCache = new ConcurrentHashMap<>();
     private final Map<Integer, String> biomeWriteCache = new ConcurrentHashMap<>();
 
     private final Path savePath;
+    // Held exclusively only while the world is replaced as a whole (or the random access file is swapped),
+    // individual chunks are read and updated concurrently under the read lock.
     private final ReentrantReadWriteLock worldDataLock = new ReentrantReadWriteLock();
     private final PolarWorld worldData;
+    private RandomAccessPolarReader chunkSource;
+    private final PolarJournal journal;
+    private boolean journaled = false;
+    private boolean cacheEncodedChunks = true;
+    private CompletableFuture<Void> compaction = null;
+    // Incremented whenever the world file is written in full, so that compaction can tell its snapshot is stale.
+    private long worldFileGeneration = 0;
+
+    private boolean asyncSave = false;
+    private final Object saveLock = new Object();
+    // The save which has been requested but not yet started, any further requests are merged into it.
+    private CompletableFuture<Void> queuedSave = null;
+    private CompletableFuture<Void> lastSave = CompletableFuture.completedFuture(null);
+
+    // Change counts of loaded tracked chunks as of their last load or save, used to skip saving unchanged chunks.
+    private final Long2LongMap chunkChangeCounts = newChangeCountMap();
+    // Chunks which have been updated in worldData but not yet written to disk.
+    private final LongSet unsavedChunks = new LongOpenHashSet();
+    private volatile boolean unsavedWorldData = false;
+    // Set when the world height changes, which cannot be represented in the journal.
+    private volatile boolean fullSaveRequired = false;
 
     private PolarWorldAccess worldAccess = PolarWorldAccess.DEFAULT;
+    // Heightmaps are only expanded into a full table for world access implementations which read them
+    private boolean loadHeightmaps = false;
     private boolean parallel = false;
     private boolean loadLighting = true;
 
     private int plainsBiomeId = 0; // Always 0 in minestom
 
     public PolarLoader(@NotNull Path path) throws IOException {
-        this(path, Files.exists(path) ? PolarReader.read(Files.readAllBytes(path)) : new PolarWorld());
+        this(path, Files.exists(path) ? PolarReader.read(path) : new PolarWorld(), null);
     }
 
     public PolarLoader(@NotNull Path savePath, @NotNull PolarWorld worldData) {
+        this(savePath, worldData, null);
+        // The world did not come from the save path, so it must be written in full on the next save
+        this.fullSaveRequired = true;
+    }
+
+    private PolarLoader(@NotNull Path savePath, @NotNull PolarWorld worldData, @Nullable RandomAccessPolarReader chunkSource) {
         this.savePath = savePath;
         this.worldData = worldData;
+        this.chunkSource = chunkSource;
+        updateEncodedChunkCache();
+
+        // Chunks saved to the journal are newer than the world file, so always apply them even if not journaling.
+        this.journal = new PolarJournal(PolarJournal.journalPath(savePath));
+        try {
+            journal.replay(worldData);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay polar journal", e);
+        }
     }
 
     public PolarLoader(@NotNull InputStream inputStream) throws IOException {
         try (inputStream) {
             this.worldData = PolarReader.read(inputStream.readAllBytes());
             this.savePath = null;
+            this.journal = null;
         }
     }
 
     public PolarLoader(@NotNull PolarWorld world) {
         this.worldData = world;
         this.savePath = null;
+        this.journal = null;
     }
 
     public @NotNull PolarWorld world() {
@@ -113,6 +235,7 @@ public class PolarLoader implements ChunkLoader {
     @Contract("_ -> this")
     public @NotNull PolarLoader setWorldAccess(@NotNull PolarWorldAccess worldAccess) {
         this.worldAccess = worldAccess;
+        this.loadHeightmaps = overridesLoadHeightmaps(worldAccess);
 
         this.plainsBiomeId = this.worldAccess.getBiomeId(Biome.PLAINS.name());
         if (this.plainsBiomeId == -1) {
@@ -144,6 +267,126 @@ public class PolarLoader implements ChunkLoader {
         return this;
     }
 
+    /**
+     * Sets the loader to append saved chunks to a journal next to the world file ({@code <world>.journal}) instead
+     * of rewriting the entire world on every save.
+     * <br/><br/>
+     * The journal is compacted back into the world file in the background once it grows larger than the world,
+     * or when {@link #compactJournal()} is called. A journal is always replayed when the world is loaded with
+     * this loader, regardless of this setting. Other readers (such as {@link PolarReader} and
+     * {@link #streamLoad}) do not read the journal, so it should be compacted before the world is used elsewhere.
+     *
+     * @param journaled True to append saved chunks to a journal, false to rewrite the world on every save.
+     * @return this
+     * @throws IllegalStateException If the loader was not created with a path
+     */
+    @ApiStatus.Experimental
+    @Contract("_ -> this")
+    public @NotNull PolarLoader setJournaled(boolean journaled) {
+        if (journal == null) throw new IllegalStateException("Journaling requires a save path");
+        this.journaled = journaled;
+        updateEncodedChunkCache();
+        return this;
+    }
+
+    private static boolean overridesLoadHeightmaps(@NotNull PolarWorldAccess worldAccess) {
+        try {
+            var method = worldAccess.getClass().getMethod("loadHeightmaps", Chunk.class, int[][].class);
+            return method.getDeclaringClass() != PolarWorldAccess.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Sets whether the encoded form of each chunk is kept between saves, so that a save only encodes the chunks which
+     * changed since the last one. The cache takes about as much memory as the world file before compression
+     * (or as the file itself for {@link PolarWorld.CompressionType#ZSTD_CHUNKED} worlds).
+     * <p>
+     * Enabled by default, but only used when every save rewrites the whole world file, so not when journaled or for
+     * {@link #randomAccess(Path) random access} loaders.
+     *
+     * @param cacheEncodedChunks True to keep encoded chunks between saves, false otherwise.
+     * @return this
+     */
+    @ApiStatus.Experimental
+    @Contract("_ -> this")
+    public @NotNull PolarLoader setCacheEncodedChunks(boolean cacheEncodedChunks) {
+        this.cacheEncodedChunks = cacheEncodedChunks;
+        updateEncodedChunkCache();
+        return this;
+    }
+
+    private void updateEncodedChunkCache() {
+        // Only worth keeping encoded chunks around when the whole world is rewritten on every save
+        worldData.setCacheEncodedChunks(cacheEncodedChunks && savePath != null && chunkSource == null && !journaled);
+    }
+
+    /**
+     * Folds the journal back into the world file, leaving an up-to-date world file and no journal.
+     * Does nothing if there is no journal.
+     *
+     * @return A future that completes when the journal has been compacted.
+     */
+    @ApiStatus.Experimental
+    public synchronized @NotNull CompletableFuture<Void> compactJournal() {
+        if (journal == null) return CompletableFuture.completedFuture(null);
+        if (compaction != null && !compaction.isDone()) return compaction;
+
+        var future = new CompletableFuture<Void>();
+        Thread.startVirtualThread(() -> {
+            try {
+                compact();
+                future.complete(null);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return compaction = future;
+    }
+
+    /**
+     * Sets the loader to write saves to disk in the background rather than on the thread calling
+     * {@link #saveChunks(Collection)} (usually the tick thread). Chunks are still snapshotted on the calling thread.
+     * <br/><br/>
+     * Saves are written one at a time. If a save is requested while another is still waiting to be written, they
+     * are merged into a single write. Use {@link #saveChunksAsync(Collection)} or {@link #pendingSave()} to wait
+     * for the saved data to be on disk.
+     *
+     * @param asyncSave True to write saves in the background, false to write them on the calling thread.
+     * @return this
+     */
+    @ApiStatus.Experimental
+    @Contract("_ -> this")
+    public @NotNull PolarLoader setAsyncSave(boolean asyncSave) {
+        this.asyncSave = asyncSave;
+        return this;
+    }
+
+    /**
+     * Snapshots the given chunks and writes them to disk in the background, regardless of {@link #setAsyncSave(boolean)}.
+     *
+     * @param chunks The chunks to save, must be called from a thread which may access them.
+     * @return A future that completes when the chunks (and any previously saved chunks) are durably written to disk.
+     */
+    @ApiStatus.Experimental
+    public @NotNull CompletableFuture<Void> saveChunksAsync(@NotNull Collection<Chunk> chunks) {
+        updateChunks(chunks);
+
+        if (savePath == null) return CompletableFuture.completedFuture(null);
+        return scheduleSave();
+    }
+
+    /**
+     * Returns a future that completes when every save requested so far has been written to disk.
+     */
+    @ApiStatus.Experimental
+    public @NotNull CompletableFuture<Void> pendingSave() {
+        synchronized (saveLock) {
+            return lastSave;
+        }
+    }
+
     // Loading
 
 
@@ -163,9 +406,15 @@ public class PolarLoader implements ChunkLoader {
     @Override
     public @Nullable Chunk loadChunk(@NotNull Instance instance, int chunkX, int chunkZ) {
         // Only need to lock for this tiny part, chunks are immutable.
+        PolarChunk chunkData;
         worldDataLock.readLock().lock();
-        var chunkData = worldData.chunkAt(chunkX, chunkZ);
-        worldDataLock.readLock().unlock();
+        try {
+            chunkData = worldData.chunkAt(chunkX, chunkZ);
+            if (chunkData == null && chunkSource != null)
+                chunkData = chunkSource.readChunk(chunkX, chunkZ);
+        } finally {
+            worldDataLock.readLock().unlock();
+        }
         if (chunkData == null) return null;
 
         // We are making the assumption here that the chunk height is the same as this world.
@@ -194,12 +443,18 @@ public class PolarLoader implements ChunkLoader {
                 loadBlockEntity(chunk, blockEntity);
             }
 
-            worldAccess.loadHeightmaps(chunk, chunkData.heightmaps());
+            if (loadHeightmaps) worldAccess.loadHeightmaps(chunk, chunkData.heightmaps());
 
             var userData = chunkData.userData();
             if (userData.length > 0) {
                 worldAccess.loadChunkData(chunk, NetworkBuffer.wrap(userData, 0, userData.length));
             }
+
+            if (chunk instanceof TrackedChunk tracked) {
+                synchronized (chunkChangeCounts) {
+                    chunkChangeCounts.put(CoordConversion.chunkIndex(chunkX, chunkZ), tracked.changeCount());
+                }
+            }
         }
 
         return chunk;
@@ -210,63 +465,52 @@ public class PolarLoader implements ChunkLoader {
 
         // Blocks
         var rawBlockPalette = sectionData.blockPalette();
-        var blockPalette = new Block[rawBlockPalette.length];
+        var blockPalette = new int[rawBlockPalette.length];
         for (int i = 0; i < rawBlockPalette.length; i++) {
-            try {
-                //noinspection deprecation
-                blockPalette[i] = ArgumentBlockState.staticParse(rawBlockPalette[i]);
-            } catch (ArgumentSyntaxException e) {
-                logger.error("Failed to parse block state: {} ({})", rawBlockPalette[i], e.getMessage());
-                blockPalette[i] = Block.AIR;
+            blockPalette[i] = RegistryCache.blockStateId(rawBlockPalette[i]);
+            if (blockPalette[i] == -1) {
+                logger.error("Failed to parse block state: {}", rawBlockPalette[i]);
+                blockPalette[i] = Block.AIR.stateId();
             }
         }
         if (blockPalette.length == 1) {
-            section.blockPalette().fill(blockPalette[0].stateId());
+            section.blockPalette().fill(blockPalette[0]);
         } else {
+            // Built in a single pass rather than set per block, which would resize the palette as it grows
             final var paletteData = sectionData.blockData();
-            for (int y = 0; y < CHUNK_SECTION_SIZE; y++) {
-                for (int z = 0; z < CHUNK_SECTION_SIZE; z++) {
-                    for (int x = 0; x < CHUNK_SECTION_SIZE; x++) {
-                        int index = y * CHUNK_SECTION_SIZE * CHUNK_SECTION_SIZE + z * CHUNK_SECTION_SIZE + x;
-                        section.blockPalette().set(x, y, z, blockPalette[paletteData[index]].stateId());
-                    }
-                }
-            }
+            section.blockPalette().setAll((x, y, z) -> {
+                int index = y * CHUNK_SECTION_SIZE * CHUNK_SECTION_SIZE + z * CHUNK_SECTION_SIZE + x;
+                return blockPalette[paletteData[index]];
+            });
         }
 
         // Biomes
         var rawBiomePalette = sectionData.biomePalette();
         var biomePalette = new int[rawBiomePalette.length];
         for (int i = 0; i < rawBiomePalette.length; i++) {
-            biomePalette[i] = biomeReadCache.computeIfAbsent(rawBiomePalette[i], name -> {
-                var biomeId = this.worldAccess.getBiomeId(name);
-                if (biomeId == -1) {
-                    logger.error("Failed to find biome: {}", name);
-                    biomeId = plainsBiomeId;
-                }
-                return biomeId;
-            });
+            biomePalette[i] = worldAccess == PolarWorldAccess.DEFAULT
+                    ? RegistryCache.biomeId(rawBiomePalette[i])
+                    : biomeReadCache.computeIfAbsent(rawBiomePalette[i], worldAccess::getBiomeId);
+            if (biomePalette[i] == -1) {
+                logger.error("Failed to find biome: {}", rawBiomePalette[i]);
+                biomePalette[i] = plainsBiomeId;
+            }
         }
         if (biomePalette.length == 1) {
             section.biomePalette().fill(biomePalette[0]);
         } else {
             final var paletteData = sectionData.biomeData();
-            for (int y = 0; y < CHUNK_SECTION_SIZE/4; y++) {
-                for (int z = 0; z < CHUNK_SECTION_SIZE/4; z++) {
-                    for (int x = 0; x < CHUNK_SECTION_SIZE/4; x++) {
-                        int index = x + (z) * 4 + (y) * 16;
-
-                        var paletteIndex = paletteData[index];
-                        if (paletteIndex >= biomePalette.length) {
-                            logger.error("Invalid biome palette index. This is probably a corrupted world, " +
-                                    "but it has been loaded with plains instead. No data has been written.");
-                            section.biomePalette().set(x, y, z, plainsBiomeId);
-                        }
-
-                        section.biomePalette().set(x, y, z, biomePalette[paletteIndex]);
-                    }
+            section.biomePalette().setAll((x, y, z) -> {
+                int index = x + z * 4 + y * 16;
+
+                var paletteIndex = paletteData[index];
+                if (paletteIndex >= biomePalette.length) {
+                    logger.error("Invalid biome palette index. This is probably a corrupted world, " +
+                            "but it has been loaded with plains instead. No data has been written.");
+                    return plainsBiomeId;
                 }
-            }
+                return biomePalette[paletteIndex];
+            });
         }
 
         // Light
@@ -310,7 +554,11 @@ public class PolarLoader implements ChunkLoader {
 
     @Override
     public void saveInstance(@NotNull Instance instance) {
-        worldData.userData(NetworkBuffer.makeArray(b -> worldAccess.saveWorldData(instance, b)));
+        var userData = NetworkBuffer.makeArray(b -> worldAccess.saveWorldData(instance, b));
+        if (!Arrays.equals(userData, worldData.userData())) {
+            worldData.userData(userData);
+            unsavedWorldData = true;
+        }
         DimensionType dimensionType = MinecraftServer.getDimensionTypeRegistry().get(instance.getDimensionType());
 
         byte minSection = (byte) (dimensionType.minY() / CHUNK_SECTION_SIZE);
@@ -328,33 +576,256 @@ public class PolarLoader implements ChunkLoader {
 
         worldDataLock.writeLock().unlock();
 
+        // Every chunk changed height, so nothing can be skipped
+        synchronized (chunkChangeCounts) {
+            chunkChangeCounts.clear();
+        }
+        fullSaveRequired = true;
+
         saveChunks(instance.getChunks());
     }
 
     @Override
     public void unloadChunk(Chunk chunk) {
-        updateChunkData(new Short2ObjectOpenHashMap<>(), chunk);
+        updateChunkData(chunk);
+        synchronized (chunkChangeCounts) {
+            chunkChangeCounts.remove(CoordConversion.chunkIndex(chunk.getChunkX(), chunk.getChunkZ()));
+        }
     }
 
     @Override
     public void saveChunks(@NotNull Collection<Chunk> chunks) {
-        var blockCache = new Short2ObjectOpenHashMap<String>();
-
-        // Update state of each chunk locally
-        chunks.forEach(c -> updateChunkData(blockCache, c));
+        // Update state of each changed chunk locally
+        updateChunks(chunks);
 
         // Write the file to disk
-        if (savePath != null) {
-            try {
-                Files.write(savePath, PolarWriter.write(worldData), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-            } catch (IOException e) {
+        if (savePath == null) return;
+        if (asyncSave) {
+            scheduleSave().exceptionally(e -> {
                 EXCEPTION_HANDLER.handleException(new RuntimeException("Failed to save world", e));
+                return null;
+            });
+            return;
+        }
+        try {
+            writeSave();
+        } catch (IOException | UncheckedIOException e) {
+            EXCEPTION_HANDLER.handleException(new RuntimeException("Failed to save world", e));
+        }
+    }
+
+    private @NotNull CompletableFuture<Void> scheduleSave() {
+        synchronized (saveLock) {
+            if (queuedSave != null) return queuedSave;
+
+            // The save reads the latest state when it starts, so it includes every request made before then.
+            var future = new CompletableFuture<Void>();
+            lastSave.whenCompleteAsync((ignored, previousError) -> {
+                synchronized (saveLock) {
+                    queuedSave = null;
+                }
+                try {
+                    writeSave();
+                    future.complete(null);
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }, SAVE_EXECUTOR);
+            queuedSave = future;
+            return lastSave = future;
+        }
+    }
+
+    private void writeSave() throws IOException {
+        if (journaled && !fullSaveRequired) {
+            saveJournal();
+        } else {
+            saveFull();
+        }
+    }
+
+    private void saveFull() throws IOException {
+        // Everything in the journal is also in memory, so it is obsolete once the world is written.
+        synchronized (journal) {
+            boolean unchanged = takeUnsavedChunks().isEmpty() && !fullSaveRequired && !unsavedWorldData;
+            if (unchanged && journal.size() == 0 && Files.exists(savePath)) return;
+
+            fullSaveRequired = false;
+            unsavedWorldData = false;
+            worldFileGeneration++;
+            try {
+                saveWorld();
+                journal.truncateBefore(journal.size());
+            } catch (IOException | UncheckedIOException e) {
+                fullSaveRequired = true; // Try again next time
+                throw e;
             }
         }
     }
 
-    private void updateChunkData(@NotNull Short2ObjectMap<String> blockCache, @NotNull Chunk chunk) {
+    private @NotNull LongSet takeUnsavedChunks() {
+        synchronized (unsavedChunks) {
+            var chunks = new LongOpenHashSet(unsavedChunks);
+            unsavedChunks.clear();
+            return chunks;
+        }
+    }
+
+    private void saveWorld() throws IOException {
+        if (chunkSource != null) {
+            saveRandomAccess();
+        } else {
+            // Held while writing so that the height of the world cannot change between the header and the chunks
+            Path tempPath;
+            worldDataLock.readLock().lock();
+            try {
+                tempPath = writeTempFile(".tmp", out -> PolarWriter.write(worldData, PolarDataConverter.NOOP, out));
+            } finally {
+                worldDataLock.readLock().unlock();
+            }
+            FileUtil.replace(tempPath, savePath);
+        }
+    }
+
+    private void saveJournal() throws IOException {
+        // The record is built from the latest state of each chunk while holding the journal lock, so later records
+        // always contain newer states than earlier ones even if saves race.
+        synchronized (journal) {
+            var chunks = takeUnsavedChunks();
+            if (chunks.isEmpty() && !unsavedWorldData) return;
+            unsavedWorldData = false;
+
+            var recordChunks = new ArrayList<PolarChunk>(chunks.size());
+            worldDataLock.readLock().lock();
+            try {
+                for (long index : chunks) {
+                    var chunkData = worldData.chunkAt(CoordConversion.chunkIndexGetX(index), CoordConversion.chunkIndexGetZ(index));
+                    if (chunkData != null) recordChunks.add(chunkData);
+                }
+            } finally {
+                worldDataLock.readLock().unlock();
+            }
+
+            var record = new PolarWorld(PolarWorld.LATEST_VERSION, worldData.dataVersion(), worldData.compression(),
+                    worldData.minSection(), worldData.maxSection(), worldData.userData(), recordChunks);
+            if (worldData.dictionary() != null) record.setCompression(worldData.dictionary());
+            try {
+                journal.append(record);
+            } catch (IOException | UncheckedIOException e) {
+                // Try again next time
+                synchronized (unsavedChunks) {
+                    unsavedChunks.addAll(chunks);
+                }
+                unsavedWorldData = true;
+                throw e;
+            }
+        }
+
+        long worldSize = Files.exists(savePath) ? Files.size(savePath) : 0;
+        if (journal.size() > Math.max(MIN_COMPACTION_SIZE, worldSize))
+            compactJournal();
+    }
+
+    private void compact() throws IOException {
+        if (chunkSource != null) {
+            // Random access saves already hold the world lock for the duration, and clear the saved chunks from
+            // memory afterwards, so the journal must not be appended to concurrently.
+            synchronized (journal) {
+                if (journal.size() == 0) return;
+                saveRandomAccess();
+                journal.truncateBefore(journal.size());
+            }
+            return;
+        }
+
+        // Every record before this offset was built from an older state of the world than the one written below,
+        // so only those records are removed. Records appended while writing are kept and replayed on top.
+        long journalOffset, generation;
+        synchronized (journal) {
+            journalOffset = journal.size();
+            generation = worldFileGeneration;
+            if (journalOffset == 0) return;
+        }
+
+        // Streamed outside the journal lock so that saves are not blocked while the world is encoded. It must not
+        // share a temporary file with a concurrent full save. The world lock is held so that the height of the
+        // world cannot change between the header and the chunks.
+        Path tempPath;
+        worldDataLock.readLock().lock();
+        try {
+            tempPath = writeTempFile(".compact.tmp", out -> PolarWriter.write(worldData, PolarDataConverter.NOOP, out));
+        } finally {
+            worldDataLock.readLock().unlock();
+        }
+        synchronized (journal) {
+            // A full save while writing already wrote a newer world, and removed the journal.
+            if (generation != worldFileGeneration) {
+                Files.deleteIfExists(tempPath);
+                return;
+            }
+            FileUtil.replace(tempPath, savePath);
+            journal.truncateBefore(journalOffset);
+        }
+    }
+
+    /**
+     * Writes a new world file next to the current one, which is synced to disk so that it can be atomically moved
+     * over the current world without risking a partially written world if the process crashes.
+     */
+    private @NotNull Path writeTempFile(@NotNull String suffix, @NotNull WorldWriter writer) throws IOException {
+        var tempPath = savePath.resolveSibling(savePath.getFileName() + suffix);
+        try (var channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writer.write(Channels.newOutputStream(channel));
+            channel.force(true);
+        } catch (Throwable e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+        return tempPath;
+    }
+
+    private interface WorldWriter {
+        void write(@NotNull OutputStream out) throws IOException;
+    }
+
+    private void saveRandomAccess() throws IOException {
+        // Chunks not in memory are copied from the current file, so it must stay intact until the new one is
+        // written. Loads are blocked for the duration, since the file is about to be replaced underneath them.
+        // The new file must be readable randomly as well, or the loader would be left without a chunk source.
+        if (!RandomAccessPolarReader.supports(worldData.compression()))
+            throw new IllegalStateException("Random access worlds cannot be saved with " + worldData.compression() + " compression");
+
+        worldDataLock.writeLock().lock();
+        try {
+            var tempPath = writeTempFile(".tmp", out -> PolarWriter.write(worldData, PolarDataConverter.NOOP, chunkSource, out));
+
+            chunkSource.close();
+            try {
+                FileUtil.replace(tempPath, savePath);
+            } finally {
+                // Reopen whichever file is now present, the old one if the move failed.
+                chunkSource = Objects.requireNonNull(RandomAccessPolarReader.open(savePath, PolarDataConverter.NOOP));
+            }
+
+            // Every chunk is now present in the new file, no need to keep them in memory.
+            worldData.clearChunks();
+        } finally {
+            worldDataLock.writeLock().unlock();
+        }
+    }
+
+    private void updateChunks(@NotNull Collection<Chunk> chunks) {
+        // Each chunk is snapshot under its own lock, so with a parallel safe world access they are independent
+        if (parallel && chunks.size() > 1) {
+            chunks.parallelStream().forEach(this::updateChunkData);
+        } else {
+            chunks.forEach(this::updateChunkData);
+        }
+    }
+
+    private void updateChunkData(@NotNull Chunk chunk) {
         var dimension = chunk.getInstance().getCachedDimensionType();
+        final long chunkIndex = CoordConversion.chunkIndex(chunk.getChunkX(), chunk.getChunkZ());
 
         var blockEntities = new ArrayList<PolarChunk.BlockEntity>();
         var sections = new PolarSection[dimension.height() / CHUNK_SECTION_SIZE];
@@ -362,101 +833,151 @@ public class PolarLoader implements ChunkLoader {
 
         var heightmaps = new int[PolarChunk.MAX_HEIGHTMAPS][];
 
-        var userData = new byte[0];
+        byte[] userData = null;
+        final long changeCount = chunk instanceof TrackedChunk tracked ? tracked.changeCount() : -1;
 
         synchronized (chunk) {
+            // Skip the chunk entirely if nothing changed since it was loaded or last saved. User data is not
+            // tracked, so it is compared to the saved chunk instead (unless there can be none).
+            if (changeCount != -1 && isUnchanged(chunkIndex, changeCount)) {
+                if (worldAccess == PolarWorldAccess.DEFAULT) return;
+                userData = NetworkBuffer.makeArray(b -> worldAccess.saveChunkData(chunk, b));
+                var saved = worldData.chunkAt(chunk.getChunkX(), chunk.getChunkZ());
+                if (saved != null && Arrays.equals(saved.userData(), userData)) return;
+            }
+            if (userData == null)
+                userData = NetworkBuffer.makeArray(b -> worldAccess.saveChunkData(chunk, b));
+
+            var entries = UnsafeOps.unsafeGetEntries(chunk);
+            var blockPaletteBuilder = new PaletteBuilder();
+            var biomePaletteBuilder = new PaletteBuilder();
             for (int i = 0; i < sections.length; i++) {
                 int sectionY = i + chunk.getMinSection();
                 var section = chunk.getSection(sectionY);
                 //todo check if section is empty and skip
 
-                var blockPalette = new ArrayList<String>();
+                String[] blockPalette;
                 int[] blockData = null;
                 if (section.blockPalette().count() == 0) {
                     // Short circuit empty palette
-                    blockPalette.add("air");
+                    blockPalette = new String[]{"air"};
                 } else {
                     var localBlockData = new int[PolarSection.BLOCK_PALETTE_SIZE];
 
+                    // Section palette, built from state ids and only converted to strings once per entry
+                    blockPaletteBuilder.clear();
                     section.blockPalette().getAll((x, sectionLocalY, z, blockStateId) -> {
                         final int blockIndex = x + sectionLocalY * 16 * 16 + z * 16;
-
-                        // Section palette
-                        var namespace = blockCache.computeIfAbsent((short) blockStateId, unused -> blockToString(Block.fromStateId(blockStateId)));
-                        int paletteId = blockPalette.indexOf(namespace);
-                        if (paletteId == -1) {
-                            paletteId = blockPalette.size();
-                            blockPalette.add(namespace);
-                        }
-                        localBlockData[blockIndex] = paletteId;
+                        localBlockData[blockIndex] = blockPaletteBuilder.indexOf(blockStateId);
                     });
 
+                    blockPalette = new String[blockPaletteBuilder.size()];
+                    for (int j = 0; j < blockPalette.length; j++)
+                        blockPalette[j] = RegistryCache.blockStateName(blockPaletteBuilder.id(j));
                     blockData = localBlockData;
 
-                    // Block entities
-                    for (int sectionLocalY = 0; sectionLocalY < CHUNK_SECTION_SIZE; sectionLocalY++) {
-                        for (int z = 0; z < Chunk.CHUNK_SIZE_Z; z++) {
-                            for (int x = 0; x < Chunk.CHUNK_SIZE_X; x++) {
-                                int y = sectionLocalY + sectionY * CHUNK_SECTION_SIZE;
-                                var block = chunk.getBlock(x, y, z, Block.Getter.Condition.CACHED);
-                                if (block == null) continue;
-
-                                var handlerId = block.handler() == null ? null : block.handler().getKey().asString();
-                                if (handlerId != null || block.hasNbt()) {
-                                    blockEntities.add(new PolarChunk.BlockEntity(
-                                            x, y, z, handlerId, block.nbt()
-                                    ));
+                    // Block entities, only scanned for when the chunk entries are unavailable
+                    if (entries == null) {
+                        for (int sectionLocalY = 0; sectionLocalY < CHUNK_SECTION_SIZE; sectionLocalY++) {
+                            for (int z = 0; z < Chunk.CHUNK_SIZE_Z; z++) {
+                                for (int x = 0; x < Chunk.CHUNK_SIZE_X; x++) {
+                                    int y = sectionLocalY + sectionY * CHUNK_SECTION_SIZE;
+                                    var block = chunk.getBlock(x, y, z, Block.Getter.Condition.CACHED);
+                                    if (block == null) continue;
+
+                                    var handlerId = block.handler() == null ? null : block.handler().getKey().asString();
+                                    if (handlerId != null || block.hasNbt()) {
+                                        blockEntities.add(new PolarChunk.BlockEntity(
+                                                x, y, z, handlerId, block.nbt()
+                                        ));
+                                    }
                                 }
                             }
                         }
                     }
                 }
 
-                var biomePalette = new ArrayList<String>();
                 var biomeData = new int[PolarSection.BIOME_PALETTE_SIZE];
+                biomePaletteBuilder.clear();
+                section.biomePalette().getAll((x, y, z, id) ->
+                        biomeData[x + z * 4 + y * 4 * 4] = biomePaletteBuilder.indexOf(id));
 
-                section.biomePalette().getAll((x, y, z, id) -> {
-                    var biomeId = biomeWriteCache.computeIfAbsent(id, worldAccess::getBiomeName);
+                var biomePalette = new String[biomePaletteBuilder.size()];
+                for (int j = 0; j < biomePalette.length; j++)
+                    biomePalette[j] = biomeWriteCache.computeIfAbsent(biomePaletteBuilder.id(j), worldAccess::getBiomeName);
 
-                    var paletteId = biomePalette.indexOf(biomeId);
-                    if (paletteId == -1) {
-                        paletteId = biomePalette.size();
-                        biomePalette.add(biomeId);
-                    }
-
-                    biomeData[x + z * 4 + y * 4 * 4] = paletteId;
-                });
-
-                byte[] blockLight = section.blockLight().array();
-                byte[] skyLight = section.skyLight().array();
+                byte[] blockLight = LightArrayInterner.intern(section.blockLight().array());
+                byte[] skyLight = LightArrayInterner.intern(section.skyLight().array());
 
                 sections[i] = new PolarSection(
-                        blockPalette.toArray(new String[0]), blockData,
-                        biomePalette.toArray(new String[0]), biomeData,
+                        blockPalette, blockData,
+                        biomePalette, biomeData,
                         getLightContent(blockLight), blockLight,
                         getLightContent(skyLight), skyLight
                 );
             }
 
+            if (entries != null) {
+                for (var entry : entries.int2ObjectEntrySet()) {
+                    var block = entry.getValue();
+                    var handlerId = block.handler() == null ? null : block.handler().getKey().asString();
+                    if (handlerId != null || block.hasNbt()) {
+                        int index = entry.getIntKey();
+                        blockEntities.add(new PolarChunk.BlockEntity(
+                                CoordConversion.chunkBlockIndexGetX(index),
+                                CoordConversion.chunkBlockIndexGetY(index),
+                                CoordConversion.chunkBlockIndexGetZ(index),
+                                handlerId, block.nbt()
+                        ));
+                    }
+                }
+                // Same order as a scan of the chunk, so the saved chunk does not depend on the map iteration order
+                blockEntities.sort(BLOCK_ENTITY_ORDER);
+            }
+
             worldAccess.saveHeightmaps(chunk, heightmaps);
+        }
 
-            userData = NetworkBuffer.makeArray(b -> worldAccess.saveChunkData(chunk, b));
+        // The chunk map is thread safe, the read lock only excludes operations replacing the world as a whole
+        // (random access saves and height changes), so concurrent saves do not wait on each other.
+        worldDataLock.readLock().lock();
+        try {
+            worldData.updateChunkAt(
+                    chunk.getChunkX(),
+                    chunk.getChunkZ(),
+                    new PolarChunk(
+                            chunk.getChunkX(),
+                            chunk.getChunkZ(),
+                            sections,
+                            blockEntities,
+                            heightmaps,
+                            userData
+                    )
+            );
+        } finally {
+            worldDataLock.readLock().unlock();
         }
 
-        worldDataLock.writeLock().lock();
-        worldData.updateChunkAt(
-                chunk.getChunkX(),
-                chunk.getChunkZ(),
-                new PolarChunk(
-                        chunk.getChunkX(),
-                        chunk.getChunkZ(),
-                        sections,
-                        blockEntities,
-                        heightmaps,
-                        userData
-                )
-        );
-        worldDataLock.writeLock().unlock();
+        synchronized (unsavedChunks) {
+            unsavedChunks.add(chunkIndex);
+        }
+        if (changeCount != -1) {
+            synchronized (chunkChangeCounts) {
+                chunkChangeCounts.put(chunkIndex, changeCount);
+            }
+        }
+    }
+
+    private boolean isUnchanged(long chunkIndex, long changeCount) {
+        synchronized (chunkChangeCounts) {
+            return chunkChangeCounts.get(chunkIndex) == changeCount;
+        }
+    }
+
+    private static @NotNull Long2LongMap newChangeCountMap() {
+        var map = new Long2LongOpenHashMap();
+        map.defaultReturnValue(-1); // Change counts start at zero
+        return map;
     }
 
     private @NotNull LightContent getLightContent(byte @Nullable [] data) {
@@ -470,21 +991,4 @@ public class PolarLoader implements ChunkLoader {
     public void saveChunk(@NotNull Chunk chunk) {
         saveChunks(List.of(chunk));
     }
-
-    private @NotNull String blockToString(@NotNull Block block) {
-        var builder = new StringBuilder(block.name());
-        if (block.properties().isEmpty()) return builder.toString();
-
-        builder.append('[');
-        for (var entry : block.properties().entrySet()) {
-            builder.append(entry.getKey())
-                    .append('=')
-                    .append(entry.getValue())
-                    .append(',');
-        }
-        builder.deleteCharAt(builder.length() - 1);
-        builder.append(']');
-
-        return builder.toString();
-    }
 }
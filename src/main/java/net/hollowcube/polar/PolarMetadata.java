@@ -0,0 +1,35 @@
+package net.hollowcube.polar;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The metadata of a polar world, read from the file header without reading the rest of the world.
+ *
+ * @param summary The summary of the world content, only present in worlds written since version 12.
+ * @see PolarReader#readMetadata(byte[])
+ */
+@ApiStatus.Experimental
+public record PolarMetadata(
+        short version, int dataVersion,
+        @NotNull PolarWorld.CompressionType compression,
+        @Nullable Summary summary
+) {
+
+    /**
+     * A summary of the world content, written ahead of the (possibly compressed) content.
+     * <p>
+     * Chunk bounds are inclusive, and are all zero if there are no chunks.
+     *
+     * @param contentLength The uncompressed length of the world content, or 0 if it was not known when writing.
+     *                      For {@link PolarWorld.CompressionType#ZSTD_CHUNKED} worlds this is the stored length with
+     *                      each chunk counted at its decompressed length.
+     */
+    public record Summary(
+            byte minSection, byte maxSection, int chunkCount,
+            int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ,
+            long contentLength
+    ) {
+    }
+}
@@ -1,6 +1,7 @@
 package net.hollowcube.polar;
 
 import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
 import net.hollowcube.polar.PolarSection.LightContent;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.nbt.BinaryTag;
@@ -10,19 +11,48 @@ import net.minestom.server.network.NetworkBuffer;
 import net.minestom.server.utils.nbt.BinaryTagReader;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import static net.minestom.server.network.NetworkBuffer.*;
+import static net.minestom.server.network.PolarBufferAccessWidener.networkBufferView;
 
 public class PolarReader {
-    static final NetworkBuffer.Type<byte[]> LIGHT_DATA = NetworkBuffer.FixedRawBytes(2048);
+    static final int LIGHT_DATA_SIZE = 2048;
+    static final NetworkBuffer.Type<byte[]> LIGHT_DATA = NetworkBuffer.FixedRawBytes(LIGHT_DATA_SIZE);
+    // Light encodings following the LightContent ordinals, see readLightEncoding
+    static final int LIGHT_UNIFORM = 4;
+    static final int LIGHT_RUN_LENGTH = 5;
+
+    private static final Map<Integer, PolarDictionary> DICTIONARIES = new ConcurrentHashMap<>();
 
     private static final boolean FORCE_LEGACY_NBT = Boolean.getBoolean("polar.debug.force-legacy-nbt");
     static final int MAX_BLOCK_PALETTE_SIZE = 16 * 16 * 16;
     static final int MAX_BIOME_PALETTE_SIZE = 8 * 8 * 8;
+    // Present flag, section range, chunk count, chunk bounds and content length
+    private static final int MAX_SUMMARY_SIZE = Byte.BYTES + 2 * Byte.BYTES + 5 + 4 * 5 + 10;
+    /**
+     * The largest possible size of the header of a world (currently 59 bytes), which is all that
+     * {@link #readMetadata(byte[])} needs to read.
+     */
+    // Magic number, version, data version, compression, dictionary id, length and summary
+    public static final int MAX_HEADER_SIZE = Integer.BYTES + Short.BYTES + 5 + Byte.BYTES + Integer.BYTES + 5 + MAX_SUMMARY_SIZE;
 
     private PolarReader() {
     }
@@ -32,25 +62,68 @@ public class PolarReader {
     }
 
     public static @NotNull PolarWorld read(byte @NotNull [] data, @NotNull PolarDataConverter dataConverter) {
-        var buffer = NetworkBuffer.wrap(data, 0, data.length);
-        buffer.writeIndex(data.length); // Set write index to end so readableBytes returns remaining bytes
+        return read(data, dataConverter, ChunkSelector.all());
+    }
 
-        var magicNumber = buffer.read(INT);
-        assertThat(magicNumber == PolarWorld.MAGIC_NUMBER, "Invalid magic number");
+    /**
+     * Reads only the chunks accepted by the given selector, other chunks are skipped without being decoded.
+     * <p>
+     * Chunks are skipped using their length prefix, which is present in {@link PolarWorld.CompressionType#ZSTD_CHUNKED}
+     * worlds and since version 8. Older worlds must still decode unselected chunks to find the next one.
+     * Worlds compressed as a single zstd frame are still decompressed in full.
+     *
+     * @param selector The chunks to read
+     */
+    public static @NotNull PolarWorld read(
+            byte @NotNull [] data, @NotNull PolarDataConverter dataConverter,
+            @NotNull ChunkSelector selector
+    ) {
+        var buffer = wrap(data);
+        var header = readHeader(buffer, dataConverter);
 
-        short version = buffer.read(SHORT);
-        validateVersion(version);
+        // Replace the buffer with a "decompressed" version. This is a no-op if compression is NONE.
+        return readContent(decompressBuffer(buffer, header), header, dataConverter, selector);
+    }
 
-        int dataVersion = version >= PolarWorld.VERSION_DATA_CONVERTER
-                ? buffer.read(VAR_INT)
-                : dataConverter.defaultDataVersion();
+    public static @NotNull PolarWorld read(@NotNull Path path) throws IOException {
+        return read(path, PolarDataConverter.NOOP);
+    }
 
-        var compression = PolarWorld.CompressionType.fromId(buffer.read(BYTE));
-        assertThat(compression != null, "Invalid compression type");
-        var compressedDataLength = buffer.read(VAR_INT);
+    public static @NotNull PolarWorld read(
+            @NotNull Path path, @NotNull PolarDataConverter dataConverter
+    ) throws IOException {
+        return read(path, dataConverter, ChunkSelector.all());
+    }
 
-        // Replace the buffer with a "decompressed" version. This is a no-op if compression is NONE.
-        buffer = decompressBuffer(buffer, compression, compressedDataLength);
+    /**
+     * Reads the world at the given path without reading it into the heap, see
+     * {@link #read(byte[], PolarDataConverter, ChunkSelector)}.
+     * <p>
+     * The file is memory mapped, and worlds compressed as a whole are decompressed directly from the mapping into
+     * off heap memory, which is freed as soon as the world has been read. Large worlds otherwise need (at least) two
+     * large heap arrays which are immediately garbage.
+     */
+    public static @NotNull PolarWorld read(
+            @NotNull Path path, @NotNull PolarDataConverter dataConverter,
+            @NotNull ChunkSelector selector
+    ) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ); var arena = Arena.ofConfined()) {
+            var file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            var buffer = networkBufferView(file);
+            var header = readHeader(buffer, dataConverter);
+            return readContent(decompressSegment(file, buffer, header, arena), header, dataConverter, selector);
+        }
+    }
+
+    /**
+     * Reads the world content following the header, from an already decompressed buffer.
+     */
+    private static @NotNull PolarWorld readContent(
+            @NotNull NetworkBuffer buffer, @NotNull Header header,
+            @NotNull PolarDataConverter dataConverter, @NotNull ChunkSelector selector
+    ) {
+        short version = header.version();
+        int dataVersion = header.dataVersion();
 
         byte minSection = buffer.read(BYTE), maxSection = buffer.read(BYTE);
         assertThat(minSection < maxSection, "Invalid section range");
@@ -60,22 +133,168 @@ public class PolarReader {
         if (version > PolarWorld.VERSION_WORLD_USERDATA)
             userData = buffer.read(BYTE_ARRAY);
 
+        var paletteTables = readPaletteTables(dataConverter, version, dataVersion, buffer);
+
         int chunkCount = buffer.read(VAR_INT);
-        var chunks = new ArrayList<PolarChunk>(chunkCount);
-        for (int i = 0; i < chunkCount; i++) {
-            chunks.add(readChunk(dataConverter, version, dataVersion, buffer, maxSection - minSection + 1));
+        final int sectionCount = maxSection - minSection + 1;
+        List<PolarChunk> chunks;
+        if (header.compression() == PolarWorld.CompressionType.ZSTD_CHUNKED) {
+            // Each chunk is a separate zstd frame, so they can be decompressed in parallel. Decoding stays on this
+            // thread since it calls the data converter, which is not required to be thread safe.
+            var entries = new ArrayList<ChunkEntry>(chunkCount);
+            for (int i = 0; i < chunkCount; i++) {
+                var chunkX = buffer.read(VAR_INT);
+                var chunkZ = buffer.read(VAR_INT);
+                var length = buffer.read(VAR_INT);
+                if (!selector.test(chunkX, chunkZ)) {
+                    buffer.advanceRead(length);
+                    continue;
+                }
+                entries.add(new ChunkEntry(chunkX, chunkZ, buffer.read(NetworkBuffer.FixedRawBytes(length))));
+            }
+            var chunkData = entries.parallelStream()
+                    .map(entry -> decompressChunkData(entry.data()))
+                    .toList();
+            chunks = new ArrayList<>(entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                var entry = entries.get(i);
+                chunks.add(readChunk(dataConverter, version, dataVersion, paletteTables,
+                        wrap(chunkData.get(i)), entry.x(), entry.z(), sectionCount));
+            }
+        } else {
+            chunks = new ArrayList<>(chunkCount);
+            for (int i = 0; i < chunkCount; i++) {
+                var chunkX = buffer.read(VAR_INT);
+                var chunkZ = buffer.read(VAR_INT);
+                boolean selected = selector.test(chunkX, chunkZ);
+                if (version >= PolarWorld.VERSION_CHUNK_INDEX) {
+                    int length = buffer.read(VAR_INT);
+                    if (!selected) {
+                        buffer.advanceRead(length);
+                        continue;
+                    }
+                }
+                var chunk = readChunk(dataConverter, version, dataVersion, paletteTables, buffer, chunkX, chunkZ, sectionCount);
+                if (selected) chunks.add(chunk);
+            }
+        }
+
+        // The chunk index (if present) follows, but it is not needed when reading every chunk.
+
+        var world = new PolarWorld(version, dataVersion, header.compression(), minSection, maxSection, userData, chunks,
+                paletteTables.blockTable(), paletteTables.biomeTable());
+        if (header.compression() == PolarWorld.CompressionType.ZSTD_DICTIONARY)
+            world.setCompression(dictionary(header.dictionaryId()));
+        return world;
+    }
+
+    /**
+     * Registers a dictionary for reading worlds compressed with {@link PolarWorld.CompressionType#ZSTD_DICTIONARY}.
+     * Dictionaries are global, and are used by both {@link PolarReader} and {@link PolarLoader#streamLoad}.
+     *
+     * @param dictionary The dictionary to register, replacing any existing dictionary with the same ID
+     */
+    public static void registerDictionary(@NotNull PolarDictionary dictionary) {
+        DICTIONARIES.put(dictionary.id(), dictionary);
+    }
+
+    static @NotNull PolarDictionary dictionary(int id) {
+        var dictionary = DICTIONARIES.get(id);
+        assertThat(dictionary != null, String.format("Unknown compression dictionary: %d", id));
+        return dictionary;
+    }
+
+    /**
+     * Reads the fixed file header, leaving the buffer positioned at the start of the (possibly compressed) world data.
+     */
+    static @NotNull Header readHeader(@NotNull NetworkBuffer buffer, @NotNull PolarDataConverter dataConverter) {
+        var magicNumber = buffer.read(INT);
+        assertThat(magicNumber == PolarWorld.MAGIC_NUMBER, "Invalid magic number");
+
+        short version = buffer.read(SHORT);
+        validateVersion(version);
+
+        int dataVersion = version >= PolarWorld.VERSION_DATA_CONVERTER
+                ? buffer.read(VAR_INT)
+                : dataConverter.defaultDataVersion();
+
+        var compression = PolarWorld.CompressionType.fromId(buffer.read(BYTE));
+        assertThat(compression != null, "Invalid compression type");
+        int dictionaryId = compression == PolarWorld.CompressionType.ZSTD_DICTIONARY ? buffer.read(INT) : 0;
+        var length = buffer.read(VAR_INT);
+
+        PolarMetadata.Summary summary = null;
+        if (version >= PolarWorld.VERSION_SUMMARY && buffer.read(BOOLEAN)) {
+            summary = new PolarMetadata.Summary(
+                    buffer.read(BYTE), buffer.read(BYTE), buffer.read(VAR_INT),
+                    buffer.read(VAR_INT), buffer.read(VAR_INT), buffer.read(VAR_INT), buffer.read(VAR_INT),
+                    buffer.read(VAR_LONG));
         }
 
-        return new PolarWorld(version, dataVersion, compression, minSection, maxSection, userData, chunks);
+        return new Header(version, dataVersion, compression, dictionaryId, length, summary);
     }
 
-    private static @NotNull PolarChunk readChunk(@NotNull PolarDataConverter dataConverter, short version, int dataVersion, @NotNull NetworkBuffer buffer, int sectionCount) {
-        var chunkX = buffer.read(VAR_INT);
-        var chunkZ = buffer.read(VAR_INT);
+    /**
+     * Reads the metadata of a world from the start of its data, without reading (or decompressing) the world
+     * itself. Only the first {@link #MAX_HEADER_SIZE} bytes are required.
+     *
+     * @throws Error If the data does not start with a valid (complete) world header
+     */
+    public static @NotNull PolarMetadata readMetadata(byte @NotNull [] data) {
+        final Header header;
+        try {
+            header = readHeader(wrap(data), PolarDataConverter.NOOP);
+        } catch (Error e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // Reading past the end of the data, or an overlong var int
+            throw new Error("Invalid world header", e);
+        }
+        return new PolarMetadata(header.version(), header.dataVersion(), header.compression(), header.summary());
+    }
 
+    /**
+     * Reads the metadata of the world at the given path, see {@link #readMetadata(byte[])}.
+     */
+    public static @NotNull PolarMetadata readMetadata(@NotNull Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int length = (int) Math.min(channel.size(), MAX_HEADER_SIZE);
+            return readMetadata(RandomAccessPolarReader.readFully(channel, 0, length));
+        }
+    }
+
+    /**
+     * Reads the world level palette tables present since {@link PolarWorld#VERSION_PALETTE_TABLE}. Block states are
+     * converted once here rather than for every section.
+     * <p>
+     * Older versions have no tables, in which case empty tables are returned.
+     */
+    static @NotNull PaletteTables readPaletteTables(
+            @NotNull PolarDataConverter dataConverter, short version, int dataVersion,
+            @NotNull NetworkBuffer buffer
+    ) {
+        if (version < PolarWorld.VERSION_PALETTE_TABLE)
+            return new PaletteTables(new String[0], new String[0]);
+
+        var blocks = buffer.read(STRING_ARRAY);
+        if (dataVersion < dataConverter.dataVersion()) {
+            dataConverter.convertBlockPalette(blocks, dataVersion, dataConverter.dataVersion());
+        }
+        var biomes = buffer.read(STRING_ARRAY);
+        return new PaletteTables(blocks, biomes);
+    }
+
+    /**
+     * Reads the content of a chunk, excluding the chunk position which must be read by the caller.
+     */
+    static @NotNull PolarChunk readChunk(
+            @NotNull PolarDataConverter dataConverter, short version, int dataVersion,
+            @NotNull PaletteTables paletteTables, @NotNull NetworkBuffer buffer,
+            int chunkX, int chunkZ, int sectionCount
+    ) {
         var sections = new PolarSection[sectionCount];
         for (int i = 0; i < sectionCount; i++) {
-            sections[i] = readSection(dataConverter, version, dataVersion, buffer);
+            sections[i] = readSection(dataConverter, version, dataVersion, paletteTables, buffer);
         }
 
         int blockEntityCount = buffer.read(VAR_INT);
@@ -100,55 +319,55 @@ public class PolarReader {
         );
     }
 
-    private static @NotNull PolarSection readSection(@NotNull PolarDataConverter dataConverter, short version, int dataVersion, @NotNull NetworkBuffer buffer) {
+    private static @NotNull PolarSection readSection(
+            @NotNull PolarDataConverter dataConverter, short version, int dataVersion,
+            @NotNull PaletteTables paletteTables, @NotNull NetworkBuffer buffer
+    ) {
         // If section is empty exit immediately
-        if (buffer.read(BOOLEAN)) return new PolarSection();
-
-        var blockPalette = buffer.read(STRING.list(MAX_BLOCK_PALETTE_SIZE)).toArray(String[]::new);
-        if (dataVersion < dataConverter.dataVersion()) {
-            dataConverter.convertBlockPalette(blockPalette, dataVersion, dataConverter.dataVersion());
-        }
-        upgradeGrassInPalette(blockPalette, version);
-        int[] blockData = null;
-        if (blockPalette.length > 1) {
-            blockData = new int[PolarSection.BLOCK_PALETTE_SIZE];
-
-            var rawBlockData = buffer.read(LONG_ARRAY);
-            var bitsPerEntry = (int) Math.ceil(Math.log(blockPalette.length) / Math.log(2));
-            PaletteUtil.unpack(blockData, rawBlockData, bitsPerEntry);
-        }
-
-        var biomePalette = buffer.read(STRING.list(MAX_BIOME_PALETTE_SIZE)).toArray(String[]::new);
-        int[] biomeData = null;
-        if (biomePalette.length > 1) {
-            biomeData = new int[PolarSection.BIOME_PALETTE_SIZE];
-
-            var rawBiomeData = buffer.read(LONG_ARRAY);
-            var bitsPerEntry = (int) Math.ceil(Math.log(biomePalette.length) / Math.log(2));
-            PaletteUtil.unpack(biomeData, rawBiomeData, bitsPerEntry);
+        if (buffer.read(BOOLEAN)) return PolarSection.EMPTY;
+
+        String[] blockPalette;
+        if (version >= PolarWorld.VERSION_PALETTE_TABLE) {
+            // Already converted when reading the table
+            var indices = readPaletteIndices(buffer, paletteTables.blocks().length, MAX_BLOCK_PALETTE_SIZE);
+            blockPalette = paletteTables.blockPalettes().palette(indices, paletteTables.blocks());
+        } else {
+            blockPalette = buffer.read(STRING.list(MAX_BLOCK_PALETTE_SIZE)).toArray(String[]::new);
+            if (dataVersion < dataConverter.dataVersion()) {
+                dataConverter.convertBlockPalette(blockPalette, dataVersion, dataConverter.dataVersion());
+            }
+            upgradeGrassInPalette(blockPalette, version);
+            blockPalette = paletteTables.blockPalettes().palette(blockPalette);
         }
+        // Palette data is kept packed until it is used, see PolarSection
+        long[] blockData = null;
+        if (blockPalette.length > 1)
+            blockData = readPackedData(buffer, PolarSection.BLOCK_PALETTE_SIZE, blockPalette.length);
+
+        var biomePalette = version >= PolarWorld.VERSION_PALETTE_TABLE
+                ? paletteTables.biomePalettes().palette(readPaletteIndices(buffer, paletteTables.biomes().length, MAX_BIOME_PALETTE_SIZE), paletteTables.biomes())
+                : paletteTables.biomePalettes().palette(buffer.read(STRING.list(MAX_BIOME_PALETTE_SIZE)).toArray(String[]::new));
+        long[] biomeData = null;
+        if (biomePalette.length > 1)
+            biomeData = readPackedData(buffer, PolarSection.BIOME_PALETTE_SIZE, biomePalette.length);
 
         LightContent blockLightContent = LightContent.MISSING, skyLightContent = LightContent.MISSING;
         byte[] blockLight = null, skyLight = null;
         if (version > PolarWorld.VERSION_UNIFIED_LIGHT) {
-            blockLightContent = version >= PolarWorld.VERSION_IMPROVED_LIGHT
-                    ? LightContent.VALUES[buffer.read(BYTE)]
-                    : (buffer.read(BOOLEAN) ? LightContent.PRESENT : LightContent.MISSING);
-            if (blockLightContent == LightContent.PRESENT)
-                blockLight = buffer.read(LIGHT_DATA);
-            skyLightContent = version >= PolarWorld.VERSION_IMPROVED_LIGHT
-                    ? LightContent.VALUES[buffer.read(BYTE)]
-                    : (buffer.read(BOOLEAN) ? LightContent.PRESENT : LightContent.MISSING);
-            if (skyLightContent == LightContent.PRESENT)
-                skyLight = buffer.read(LIGHT_DATA);
+            int blockLightEncoding = readLightEncoding(buffer, version);
+            blockLightContent = lightContent(blockLightEncoding);
+            blockLight = readLightData(buffer, blockLightEncoding);
+            int skyLightEncoding = readLightEncoding(buffer, version);
+            skyLightContent = lightContent(skyLightEncoding);
+            skyLight = readLightData(buffer, skyLightEncoding);
         } else if (buffer.read(BOOLEAN)) {
             blockLightContent = LightContent.PRESENT;
-            blockLight = buffer.read(LIGHT_DATA);
+            blockLight = LightArrayInterner.internOwned(buffer.read(LIGHT_DATA));
             skyLightContent = LightContent.PRESENT;
-            skyLight = buffer.read(LIGHT_DATA);
+            skyLight = LightArrayInterner.internOwned(buffer.read(LIGHT_DATA));
         }
 
-        return new PolarSection(
+        return PolarSection.packed(
                 blockPalette, blockData,
                 biomePalette, biomeData,
                 blockLightContent, blockLight,
@@ -156,6 +375,78 @@ public class PolarReader {
         );
     }
 
+    private static long @NotNull [] readPackedData(@NotNull NetworkBuffer buffer, int size, int paletteSize) {
+        var packed = buffer.read(LONG_ARRAY);
+        // Validated up front since it is unpacked later, far from where the world was read
+        int valuesPerLong = 64 / PolarSection.bitsPerEntry(paletteSize);
+        assertThat(packed.length >= (size + valuesPerLong - 1) / valuesPerLong, "Invalid palette data length");
+        return packed;
+    }
+
+    /**
+     * Reads a section palette which references entries in a world level palette table.
+     */
+    static int @NotNull [] readPaletteIndices(@NotNull NetworkBuffer buffer, int tableSize, int maxSize) {
+        int length = buffer.read(VAR_INT);
+        assertThat(length > 0 && length <= maxSize, "Invalid palette size");
+        var indices = new int[length];
+        for (int i = 0; i < length; i++) {
+            int index = buffer.read(VAR_INT);
+            assertThat(index >= 0 && index < tableSize, "Invalid palette table index");
+            indices[i] = index;
+        }
+        return indices;
+    }
+
+    /**
+     * Reads the light encoding of a section, which is one of the {@link LightContent} ordinals or
+     * (since {@link PolarWorld#VERSION_COMPACT_LIGHT}) {@link #LIGHT_UNIFORM} or {@link #LIGHT_RUN_LENGTH}.
+     */
+    static int readLightEncoding(@NotNull NetworkBuffer buffer, int version) {
+        if (version < PolarWorld.VERSION_IMPROVED_LIGHT)
+            return (buffer.read(BOOLEAN) ? LightContent.PRESENT : LightContent.MISSING).ordinal();
+        int encoding = buffer.read(BYTE);
+        int maxEncoding = version >= PolarWorld.VERSION_COMPACT_LIGHT ? LIGHT_RUN_LENGTH : LightContent.PRESENT.ordinal();
+        assertThat(encoding >= 0 && encoding <= maxEncoding, "Invalid light content");
+        return encoding;
+    }
+
+    static @NotNull LightContent lightContent(int encoding) {
+        // Compact encodings are only a different way of storing a present light array
+        return encoding < LightContent.VALUES.length ? LightContent.VALUES[encoding] : LightContent.PRESENT;
+    }
+
+    /**
+     * Reads the light array following the given encoding, or null if the encoding has no data.
+     * The returned array is interned, see {@link LightArrayInterner}.
+     */
+    static byte @Nullable [] readLightData(@NotNull NetworkBuffer buffer, int encoding) {
+        return LightArrayInterner.internOwned(readLightArray(buffer, encoding));
+    }
+
+    private static byte @Nullable [] readLightArray(@NotNull NetworkBuffer buffer, int encoding) {
+        if (encoding == LightContent.PRESENT.ordinal())
+            return buffer.read(LIGHT_DATA);
+        if (encoding == LIGHT_UNIFORM) {
+            var data = new byte[LIGHT_DATA_SIZE];
+            Arrays.fill(data, buffer.read(BYTE));
+            return data;
+        }
+        if (encoding == LIGHT_RUN_LENGTH) {
+            var data = new byte[LIGHT_DATA_SIZE];
+            int index = 0;
+            while (index < data.length) {
+                int length = buffer.read(VAR_INT);
+                assertThat(length > 0 && length <= data.length - index, "Invalid light run length");
+                byte value = buffer.read(BYTE);
+                Arrays.fill(data, index, index + length, value);
+                index += length;
+            }
+            return data;
+        }
+        return null;
+    }
+
     static void upgradeGrassInPalette(String[] blockPalette, int version) {
         if (version <= PolarWorld.VERSION_SHORT_GRASS) {
             for (int i = 0; i < blockPalette.length; i++) {
@@ -227,18 +518,81 @@ public class PolarReader {
         assertThat(version <= PolarWorld.LATEST_VERSION, invalidVersionError);
     }
 
-    private static @NotNull NetworkBuffer decompressBuffer(@NotNull NetworkBuffer buffer, @NotNull PolarWorld.CompressionType compression, int length) {
-        return switch (compression) {
-            case NONE -> buffer;
+    static @NotNull NetworkBuffer wrap(byte @NotNull [] data) {
+        var buffer = NetworkBuffer.wrap(data, 0, data.length);
+        buffer.writeIndex(data.length); // Set write index to end so readableBytes returns remaining bytes
+        return buffer;
+    }
+
+    /**
+     * Decompresses the data of a single chunk from a {@link PolarWorld.CompressionType#ZSTD_CHUNKED} world.
+     */
+    static byte @NotNull [] decompressChunkData(byte @NotNull [] chunkData) {
+        var buffer = wrap(chunkData);
+        int length = buffer.read(VAR_INT);
+        return Zstd.decompress(buffer.read(RAW_BYTES), length);
+    }
+
+    private static @NotNull NetworkBuffer decompressBuffer(@NotNull NetworkBuffer buffer, @NotNull Header header) {
+        return switch (header.compression()) {
+            case NONE, ZSTD_CHUNKED -> buffer;
+            case ZSTD, ZSTD_DICTIONARY -> wrap(decompressContent(header, buffer.read(RAW_BYTES)));
+        };
+    }
+
+    /**
+     * Memory segment variant of {@link #decompressBuffer(NetworkBuffer, Header)}, the result is only valid while the
+     * arena is open.
+     */
+    private static @NotNull NetworkBuffer decompressSegment(
+            @NotNull MemorySegment file, @NotNull NetworkBuffer buffer,
+            @NotNull Header header, @NotNull Arena arena
+    ) {
+        return switch (header.compression()) {
+            case NONE, ZSTD_CHUNKED -> buffer;
+            // Streamed writes do not know the length up front, and dictionary decompression is not supported by the
+            // direct api, so those go through a heap array instead.
+            case ZSTD_DICTIONARY -> wrap(decompressContent(header, buffer.read(RAW_BYTES)));
             case ZSTD -> {
-                var bytes = Zstd.decompress(buffer.read(RAW_BYTES), length);
-                var newBuffer = NetworkBuffer.wrap(bytes, 0, 0);
-                newBuffer.writeIndex(bytes.length);
-                yield newBuffer;
+                if (header.length() == PolarWriter.UNKNOWN_LENGTH)
+                    yield wrap(decompressContent(header, buffer.read(RAW_BYTES)));
+
+                var content = arena.allocate(header.length());
+                long count = Zstd.decompressUnsafe(content.address(), content.byteSize(),
+                        file.address() + buffer.readIndex(), buffer.readableBytes());
+                assertThat(!Zstd.isError(count), "decompression failed: " + Zstd.getErrorName(count));
+                yield networkBufferView(content);
             }
         };
     }
 
+    /**
+     * Decompresses world data which is compressed as a whole ({@link PolarWorld.CompressionType#ZSTD} or
+     * {@link PolarWorld.CompressionType#ZSTD_DICTIONARY}).
+     */
+    static byte @NotNull [] decompressContent(@NotNull Header header, byte @NotNull [] compressed) {
+        if (header.length() == PolarWriter.UNKNOWN_LENGTH)
+            return decompressStream(header, compressed);
+        return switch (header.compression()) {
+            case ZSTD -> Zstd.decompress(compressed, header.length());
+            case ZSTD_DICTIONARY -> dictionary(header.dictionaryId()).decompress(compressed, header.length());
+            default -> throw new IllegalArgumentException("not compressed as a whole: " + header.compression());
+        };
+    }
+
+    /**
+     * Decompresses world data written by a streaming write, where the uncompressed length is not known.
+     */
+    private static byte @NotNull [] decompressStream(@NotNull Header header, byte @NotNull [] compressed) {
+        try (var stream = new ZstdInputStream(new ByteArrayInputStream(compressed))) {
+            if (header.compression() == PolarWorld.CompressionType.ZSTD_DICTIONARY)
+                stream.setDict(dictionary(header.dictionaryId()).decompressDict());
+            return stream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Minecraft (so Minestom) had a breaking change in NBT reading in 1.20.2. This method replicates the old
      * behavior which we use for any Polar version less than {@link PolarWorld#VERSION_MINESTOM_NBT_READ_BREAK}.
@@ -267,10 +621,117 @@ public class PolarReader {
         if (!condition) throw new Error(message);
     }
 
+    private record ChunkEntry(int x, int z, byte @NotNull [] data) {
+    }
+
+    /**
+     * The world level palette tables of a world, see {@link #readPaletteTables(PolarDataConverter, short, int, NetworkBuffer)}.
+     */
+    record PaletteTables(
+            String @NotNull [] blocks, String @NotNull [] biomes,
+            @NotNull PaletteCache blockPalettes, @NotNull PaletteCache biomePalettes
+    ) {
+        PaletteTables(String @NotNull [] blocks, String @NotNull [] biomes) {
+            this(blocks, biomes, new PaletteCache(), new PaletteCache());
+        }
+
+        @NotNull PaletteTable blockTable() {
+            return new PaletteTable(blocks);
+        }
+
+        @NotNull PaletteTable biomeTable() {
+            return new PaletteTable(biomes);
+        }
+    }
+
+    /**
+     * Shares identical section palettes (and their entries, for worlds without palette tables) between every
+     * section read with the same {@link PaletteTables}. Most sections in a world use one of a few palettes.
+     */
+    static final class PaletteCache {
+        private final Map<String, String> entries = new ConcurrentHashMap<>();
+        private final Map<Object, String[]> palettes = new ConcurrentHashMap<>();
+
+        /**
+         * Returns the palette made of the given palette table entries.
+         */
+        String @NotNull [] palette(int @NotNull [] indices, String @NotNull [] table) {
+            return palettes.computeIfAbsent(new IndexKey(indices), unused -> {
+                var palette = new String[indices.length];
+                for (int i = 0; i < indices.length; i++)
+                    palette[i] = table[indices[i]];
+                return palette;
+            });
+        }
+
+        /**
+         * Returns the shared instance of the given palette, which must not be modified afterwards.
+         */
+        String @NotNull [] palette(String @NotNull [] palette) {
+            return palettes.computeIfAbsent(new EntryKey(palette), unused -> {
+                for (int i = 0; i < palette.length; i++)
+                    palette[i] = entries.computeIfAbsent(palette[i], Function.identity());
+                return palette;
+            });
+        }
+
+        private record IndexKey(int @NotNull [] indices) {
+            @Override
+            public boolean equals(Object o) {
+                return o instanceof IndexKey other && Arrays.equals(indices, other.indices);
+            }
+
+            @Override
+            public int hashCode() {
+                return Arrays.hashCode(indices);
+            }
+        }
+
+        private record EntryKey(String @NotNull [] entries) {
+            @Override
+            public boolean equals(Object o) {
+                return o instanceof EntryKey other && Arrays.equals(entries, other.entries);
+            }
+
+            @Override
+            public int hashCode() {
+                return Arrays.hashCode(entries);
+            }
+        }
+    }
+
+    record Header(
+            short version, int dataVersion,
+            @NotNull PolarWorld.CompressionType compression, int dictionaryId,
+            int length, @Nullable PolarMetadata.Summary summary
+    ) {
+    }
+
+    static final NetworkBuffer.Type<String[]> STRING_ARRAY = new NetworkBuffer.Type<>() {
+
+        @Override
+        public void write(@NotNull NetworkBuffer buffer, String[] value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String[] read(@NotNull NetworkBuffer buffer) {
+            final String[] array = new String[buffer.read(VAR_INT)];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = buffer.read(STRING);
+            }
+            return array;
+        }
+    };
+
     public static class Error extends RuntimeException {
         private Error(String message) {
             super(message);
         }
+
+        private Error(String message, Throwable cause) {
+            super(message, cause);
+        }
     }
 
 }
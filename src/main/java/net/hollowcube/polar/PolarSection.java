@@ -4,6 +4,9 @@ import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Representation of the latest version of the section format.
  * <p>
@@ -15,6 +18,16 @@ public class PolarSection {
     public static final int BLOCK_PALETTE_SIZE = 4096;
     public static final int BIOME_PALETTE_SIZE = 64;
 
+    private static final String[] EMPTY_BLOCK_PALETTE = new String[]{"minecraft:air"};
+    private static final String[] EMPTY_BIOME_PALETTE = new String[]{"minecraft:plains"};
+    // Most sections have a single biome (and many a single block), so those palettes are shared.
+    private static final Map<String, String[]> SINGLE_ENTRY_PALETTES = new ConcurrentHashMap<>();
+
+    /**
+     * A shared empty section, identical to {@code new PolarSection()}.
+     */
+    static final PolarSection EMPTY = new PolarSection();
+
     public enum LightContent {
         MISSING, EMPTY, FULL, PRESENT;
 
@@ -23,11 +36,13 @@ public class PolarSection {
 
     private final boolean empty;
 
+    // Palette data is always kept packed as it is stored in the file (using the fewest bits per entry for the
+    // palette size), and only unpacked when it is needed. This is many times smaller than an int per entry.
     private final String @NotNull [] blockPalette;
-    private final int @Nullable [] blockData;
+    private final long @Nullable [] blockData;
 
     private final String @NotNull [] biomePalette;
-    private final int @Nullable [] biomeData;
+    private final long @Nullable [] biomeData;
 
     private final LightContent blockLightContent;
     private final byte @Nullable [] blockLight;
@@ -37,9 +52,9 @@ public class PolarSection {
     public PolarSection() {
         this.empty = true;
 
-        this.blockPalette = new String[]{"minecraft:air"};
+        this.blockPalette = EMPTY_BLOCK_PALETTE;
         this.blockData = null;
-        this.biomePalette = new String[]{"minecraft:plains"};
+        this.biomePalette = EMPTY_BIOME_PALETTE;
         this.biomeData = null;
 
         this.blockLightContent = LightContent.MISSING;
@@ -53,12 +68,25 @@ public class PolarSection {
             String @NotNull [] biomePalette, int @Nullable [] biomeData,
             @NotNull LightContent blockLightContent, byte @Nullable [] blockLight,
             @NotNull LightContent skyLightContent, byte @Nullable [] skyLight
+    ) {
+        this(
+                blockPalette, blockPalette.length > 1 ? pack(blockData, blockPalette.length) : null,
+                biomePalette, biomePalette.length > 1 ? pack(biomeData, biomePalette.length) : null,
+                blockLightContent, blockLight, skyLightContent, skyLight
+        );
+    }
+
+    private PolarSection(
+            String @NotNull [] blockPalette, long @Nullable [] blockData,
+            String @NotNull [] biomePalette, long @Nullable [] biomeData,
+            @NotNull LightContent blockLightContent, byte @Nullable [] blockLight,
+            @NotNull LightContent skyLightContent, byte @Nullable [] skyLight
     ) {
         this.empty = false;
 
-        this.blockPalette = blockPalette;
+        this.blockPalette = sharePalette(blockPalette);
         this.blockData = blockData;
-        this.biomePalette = biomePalette;
+        this.biomePalette = sharePalette(biomePalette);
         this.biomeData = biomeData;
 
         this.blockLightContent = blockLightContent;
@@ -67,6 +95,27 @@ public class PolarSection {
         this.skyLight = skyLight;
     }
 
+    /**
+     * Creates a section from palette data packed as in the file, see {@link #bitsPerEntry(int)}.
+     */
+    static @NotNull PolarSection packed(
+            String @NotNull [] blockPalette, long @Nullable [] packedBlockData,
+            String @NotNull [] biomePalette, long @Nullable [] packedBiomeData,
+            @NotNull LightContent blockLightContent, byte @Nullable [] blockLight,
+            @NotNull LightContent skyLightContent, byte @Nullable [] skyLight
+    ) {
+        return new PolarSection(blockPalette, packedBlockData, biomePalette, packedBiomeData,
+                blockLightContent, blockLight, skyLightContent, skyLight);
+    }
+
+    /**
+     * Returns the number of bits used for each entry of packed palette data with the given palette size.
+     */
+    static int bitsPerEntry(int paletteSize) {
+        // ceil(log2(paletteSize)), at least 1
+        return paletteSize <= 2 ? 1 : Integer.SIZE - Integer.numberOfLeadingZeros(paletteSize - 1);
+    }
+
     public boolean isEmpty() {
         return empty;
     }
@@ -78,9 +127,19 @@ public class PolarSection {
     /**
      * Returns the uncompressed palette data. Each int corresponds to an index in the palette.
      * Always has a length of 4096.
+     * <p>
+     * The data is unpacked on every call, so the result should be reused where possible.
      */
     public int[] blockData() {
         assert blockData != null : "must check length of blockPalette() before using blockData()";
+        return unpack(blockData, BLOCK_PALETTE_SIZE, blockPalette.length);
+    }
+
+    /**
+     * Returns the block data packed as it is written to the file.
+     */
+    long @NotNull [] packedBlockData() {
+        assert blockData != null : "must check length of blockPalette() before using packedBlockData()";
         return blockData;
     }
 
@@ -91,9 +150,19 @@ public class PolarSection {
     /**
      * Returns the uncompressed palette data. Each int corresponds to an index in the palette.
      * Always has a length of 256.
+     * <p>
+     * The data is unpacked on every call, so the result should be reused where possible.
      */
     public int[] biomeData() {
         assert biomeData != null : "must check length of biomePalette() before using biomeData()";
+        return unpack(biomeData, BIOME_PALETTE_SIZE, biomePalette.length);
+    }
+
+    /**
+     * Returns the biome data packed as it is written to the file.
+     */
+    long @NotNull [] packedBiomeData() {
+        assert biomeData != null : "must check length of biomePalette() before using packedBiomeData()";
         return biomeData;
     }
 
@@ -112,4 +181,21 @@ public class PolarSection {
     public byte[] skyLight() {
         return skyLight;
     }
+
+    private static String @NotNull [] sharePalette(String @NotNull [] palette) {
+        if (palette.length != 1) return palette;
+        // The caller keeps its array, so share a copy which cannot be changed afterward
+        return SINGLE_ENTRY_PALETTES.computeIfAbsent(palette[0], unused -> palette.clone());
+    }
+
+    private static long @NotNull [] pack(int @Nullable [] data, int paletteSize) {
+        assert data != null : "palette data is required for palettes with more than one entry";
+        return PaletteUtil.pack(data, bitsPerEntry(paletteSize));
+    }
+
+    private static int @NotNull [] unpack(long @NotNull [] packed, int size, int paletteSize) {
+        var data = new int[size];
+        PaletteUtil.unpack(data, packed, bitsPerEntry(paletteSize));
+        return data;
+    }
 }
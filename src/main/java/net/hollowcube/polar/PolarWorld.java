@@ -1,15 +1,19 @@
 package net.hollowcube.polar;
 
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import net.minestom.server.MinecraftServer;
 import net.minestom.server.coordinate.CoordConversion;
 import net.minestom.server.world.DimensionType;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static net.minestom.server.instance.Chunk.CHUNK_SECTION_SIZE;
 
@@ -19,7 +23,7 @@ import static net.minestom.server.instance.Chunk.CHUNK_SECTION_SIZE;
 @SuppressWarnings("UnstableApiUsage")
 public class PolarWorld {
     public static final int MAGIC_NUMBER = 0x506F6C72; // `Polr`
-    public static final short LATEST_VERSION = 7;
+    public static final short LATEST_VERSION = 12;
 
     static final short VERSION_UNIFIED_LIGHT = 1;
     static final short VERSION_USERDATA_OPT_BLOCK_ENT_NBT = 2;
@@ -28,6 +32,11 @@ public class PolarWorld {
     static final short VERSION_SHORT_GRASS = 5; // >:(
     static final short VERSION_DATA_CONVERTER = 6;
     static final short VERSION_IMPROVED_LIGHT = 7;
+    static final short VERSION_CHUNK_INDEX = 8;
+    static final short VERSION_PALETTE_TABLE = 9;
+    static final short VERSION_STREAMED_CONTENT = 10;
+    static final short VERSION_COMPACT_LIGHT = 11;
+    static final short VERSION_SUMMARY = 12;
 
     public static CompressionType DEFAULT_COMPRESSION = CompressionType.ZSTD;
 
@@ -35,14 +44,23 @@ public class PolarWorld {
     private final short version;
     private final int dataVersion;
     private CompressionType compression;
+    private PolarDictionary dictionary;
 
     // World metadata
     private byte minSection;
     private byte maxSection;
     private byte @NotNull [] userData;
 
+    // Palette tables, shared by every chunk in the world
+    private volatile PaletteTable blockPaletteTable;
+    private volatile PaletteTable biomePaletteTable;
+
     // Chunk data
-    private final Long2ObjectMap<PolarChunk> chunks = new Long2ObjectOpenHashMap<>();
+    private final ChunkMap chunks = new ChunkMap();
+    // The encoded form of each chunk from the last write, reused by the writer while the chunk has not been replaced.
+    // Only kept for worlds which are written repeatedly, see setCacheEncodedChunks.
+    private volatile boolean cacheEncodedChunks = false;
+    private volatile EncodedChunks encodedChunks = EncodedChunks.EMPTY;
 
     public PolarWorld() {
         this(LATEST_VERSION, MinecraftServer.DATA_VERSION, DEFAULT_COMPRESSION, (byte) -4, (byte) 19, new byte[0], List.of());
@@ -67,6 +85,19 @@ public class PolarWorld {
             byte minSection, byte maxSection,
             byte @NotNull [] userData,
             @NotNull List<PolarChunk> chunks
+    ) {
+        this(version, dataVersion, compression, minSection, maxSection, userData, chunks, new PaletteTable(), new PaletteTable());
+    }
+
+    PolarWorld(
+            short version,
+            int dataVersion,
+            @NotNull CompressionType compression,
+            byte minSection, byte maxSection,
+            byte @NotNull [] userData,
+            @NotNull List<PolarChunk> chunks,
+            @NotNull PaletteTable blockPaletteTable,
+            @NotNull PaletteTable biomePaletteTable
     ) {
         this.version = version;
         this.dataVersion = dataVersion;
@@ -76,6 +107,9 @@ public class PolarWorld {
         this.maxSection = maxSection;
         this.userData = userData;
 
+        this.blockPaletteTable = blockPaletteTable;
+        this.biomePaletteTable = biomePaletteTable;
+
         for (var chunk : chunks) {
             var index = CoordConversion.chunkIndex(chunk.x(), chunk.z());
             this.chunks.put(index, chunk);
@@ -98,6 +132,21 @@ public class PolarWorld {
         this.compression = compression;
     }
 
+    /**
+     * Returns the dictionary used for {@link CompressionType#ZSTD_DICTIONARY} compression, if any.
+     */
+    public @Nullable PolarDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Sets the world to be compressed with {@link CompressionType#ZSTD_DICTIONARY} using the given dictionary.
+     */
+    public void setCompression(@NotNull PolarDictionary dictionary) {
+        this.compression = CompressionType.ZSTD_DICTIONARY;
+        this.dictionary = dictionary;
+    }
+
     public byte minSection() {
         return minSection;
     }
@@ -107,9 +156,7 @@ public class PolarWorld {
     }
 
     public void setSectionCount(byte minSection, byte maxSection) {
-        for (long l : chunks.keySet()) {
-            chunks.put(l, WorldHeightUtil.updateChunkHeight(chunks.get(l), minSection, maxSection));
-        }
+        chunks.replaceAll(chunk -> WorldHeightUtil.updateChunkHeight(chunk, minSection, maxSection));
 
         this.minSection = minSection;
         this.maxSection = maxSection;
@@ -123,21 +170,141 @@ public class PolarWorld {
         this.userData = userData;
     }
 
+    @NotNull PaletteTable blockPaletteTable() {
+        return blockPaletteTable;
+    }
+
+    @NotNull PaletteTable biomePaletteTable() {
+        return biomePaletteTable;
+    }
+
+    /**
+     * Removes the palette table entries which are no longer used by any chunk (eg blocks which have since been
+     * removed), so that they are not written forever. The tables are otherwise append only.
+     * <p>
+     * This reads the palette of every section, and the indices of the remaining entries change, so every chunk is
+     * encoded again on the next write. Writes which already started keep using the previous tables.
+     */
+    @ApiStatus.Experimental
+    public void removeUnusedPaletteEntries() {
+        var usedBlocks = new ObjectOpenHashSet<String>();
+        var usedBiomes = new ObjectOpenHashSet<String>();
+        chunks.forEach(chunk -> {
+            for (var section : chunk.sections()) {
+                if (section.isEmpty()) continue;
+                usedBlocks.addAll(Arrays.asList(section.blockPalette()));
+                usedBiomes.addAll(Arrays.asList(section.biomePalette()));
+            }
+        });
+
+        var blockTable = blockPaletteTable.retain(usedBlocks);
+        var biomeTable = biomePaletteTable.retain(usedBiomes);
+        if (blockTable != null) this.blockPaletteTable = blockTable;
+        if (biomeTable != null) this.biomePaletteTable = biomeTable;
+    }
+
     public @Nullable PolarChunk chunkAt(int x, int z) {
-        return chunks.getOrDefault(CoordConversion.chunkIndex(x, z), null);
+        return chunks.get(CoordConversion.chunkIndex(x, z));
     }
 
     public void updateChunkAt(int x, int z, @NotNull PolarChunk chunk) {
         chunks.put(CoordConversion.chunkIndex(x, z), chunk);
     }
 
+    void clearChunks() {
+        chunks.clear();
+    }
+
+    /**
+     * Returns a copy of the chunks in the world, which is not affected by later changes to the world. The copy is
+     * not atomic, a chunk replaced while copying may be included in either state. Every call makes a new copy,
+     * so prefer {@link #chunkCount()} and {@link #chunkAt(int, int)} where possible.
+     */
     public @NotNull Collection<PolarChunk> chunks() {
         return chunks.values();
     }
 
+    /**
+     * Returns the number of chunks in the world, without copying them.
+     */
+    public int chunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Calls the consumer for each chunk in the world without copying them, see {@link #chunks()}. The consumer must
+     * not modify the world.
+     */
+    void forEachChunk(@NotNull Consumer<PolarChunk> consumer) {
+        chunks.forEach(consumer);
+    }
+
+    /**
+     * Sets whether the writer keeps the encoded form of each chunk for the next write. Chunks of
+     * {@link CompressionType#ZSTD_CHUNKED} worlds are kept compressed, otherwise they are kept uncompressed and only
+     * the compression of the whole world runs again. Either way the cache is about as large as the written world
+     * before its outer compression.
+     */
+    void setCacheEncodedChunks(boolean cacheEncodedChunks) {
+        this.cacheEncodedChunks = cacheEncodedChunks;
+        if (!cacheEncodedChunks) this.encodedChunks = EncodedChunks.EMPTY;
+    }
+
+    boolean cachesEncodedChunks() {
+        return cacheEncodedChunks;
+    }
+
+    @NotNull EncodedChunks encodedChunks() {
+        return encodedChunks;
+    }
+
+    void setEncodedChunks(@NotNull EncodedChunks encodedChunks) {
+        this.encodedChunks = encodedChunks;
+    }
+
+    /**
+     * The chunks encoded by the last write, along with the palette tables they were encoded with.
+     *
+     * @param compressed whether the chunks are compressed as in {@link CompressionType#ZSTD_CHUNKED}
+     */
+    record EncodedChunks(
+            @Nullable PaletteTable blockTable, @Nullable PaletteTable biomeTable, boolean compressed,
+            @NotNull Long2ObjectMap<EncodedChunk> chunks
+    ) {
+        static final EncodedChunks EMPTY = new EncodedChunks(null, null, false, Long2ObjectMaps.emptyMap());
+
+        /**
+         * Returns the encoded chunks if they were encoded with the given tables and compression, otherwise none.
+         */
+        @NotNull Long2ObjectMap<EncodedChunk> chunksFor(
+                @NotNull PaletteTable blockTable, @NotNull PaletteTable biomeTable, boolean compressed
+        ) {
+            return this.blockTable == blockTable && this.biomeTable == biomeTable && this.compressed == compressed
+                    ? chunks : Long2ObjectMaps.emptyMap();
+        }
+    }
+
+    /**
+     * The written bytes of a chunk, valid as long as the same {@link PolarChunk} instance is present in
+     * the world and the palette tables are not replaced. Tables are otherwise append only, so the bytes remain valid
+     * when other chunks add entries to the table.
+     */
+    record EncodedChunk(@NotNull PolarChunk chunk, byte @NotNull [] data) {
+    }
+
     public enum CompressionType {
         NONE,
-        ZSTD;
+        ZSTD,
+        /**
+         * Each chunk is compressed as its own zstd frame, allowing chunks to be decompressed in parallel
+         * and read randomly. Compresses slightly worse than {@link #ZSTD} for small worlds.
+         */
+        ZSTD_CHUNKED,
+        /**
+         * The world is compressed as a single zstd frame using a {@link PolarDictionary}, see
+         * {@link PolarWorld#setCompression(PolarDictionary)}.
+         */
+        ZSTD_DICTIONARY;
 
         private static final CompressionType[] VALUES = values();
 
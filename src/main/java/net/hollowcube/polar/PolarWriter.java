@@ -1,17 +1,47 @@
 package net.hollowcube.polar;
 
 import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdOutputStream;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.minestom.server.coordinate.CoordConversion;
 import net.minestom.server.instance.Chunk;
 import net.minestom.server.network.NetworkBuffer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import static net.minestom.server.network.NetworkBuffer.*;
 
 @SuppressWarnings("UnstableApiUsage")
 public class PolarWriter {
+    /**
+     * Written as the content length when it is not known up front, since {@link PolarWorld#VERSION_STREAMED_CONTENT}.
+     */
+    static final int UNKNOWN_LENGTH = 0;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    // Below this many chunks to encode, splitting the work costs more than it saves
+    private static final int PARALLEL_ENCODE_THRESHOLD = 16;
+    // Chunks are encoded this many at a time, which bounds the encoded chunks held in memory before being written
+    private static final int ENCODE_WINDOW = Math.max(PARALLEL_ENCODE_THRESHOLD, Runtime.getRuntime().availableProcessors() * 8);
+
     private PolarWriter() {
     }
 
@@ -20,45 +50,361 @@ public class PolarWriter {
     }
 
     public static byte[] write(@NotNull PolarWorld world, @NotNull PolarDataConverter dataConverter) {
+        return write(world, dataConverter, (RandomAccessPolarReader) null);
+    }
+
+    /**
+     * Writes the given world to the channel, streaming chunks through the compressor as they are encoded rather
+     * than building the whole world in memory. Chunks are encoded a small batch at a time, so only a bounded number
+     * of encoded chunks is held in memory (in addition to the world itself).
+     *
+     * <p>The content length is not known up front, so it is written as unknown (zero) in the header. The channel
+     * is not closed.</p>
+     */
+    public static void write(@NotNull PolarWorld world, @NotNull WritableByteChannel channel) throws IOException {
+        write(world, PolarDataConverter.NOOP, channel);
+    }
+
+    public static void write(
+            @NotNull PolarWorld world, @NotNull PolarDataConverter dataConverter,
+            @NotNull WritableByteChannel channel
+    ) throws IOException {
+        write(world, dataConverter, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * Writes the given world to the stream, see {@link #write(PolarWorld, WritableByteChannel)}. The stream is
+     * flushed but not closed.
+     */
+    public static void write(
+            @NotNull PolarWorld world, @NotNull PolarDataConverter dataConverter,
+            @NotNull OutputStream stream
+    ) throws IOException {
+        write(world, dataConverter, null, stream);
+    }
+
+    /**
+     * Writes the given world, additionally including every chunk from {@code source} which is not present in the world.
+     *
+     * <p>Chunks from the source are copied without being decoded whenever the source is compatible with the output.</p>
+     */
+    static byte[] write(
+            @NotNull PolarWorld world, @NotNull PolarDataConverter dataConverter,
+            @Nullable RandomAccessPolarReader source
+    ) {
+        return write(world, dataConverter, source, true);
+    }
+
+    /**
+     * @param includeSummary Whether to write the {@link PolarMetadata.Summary} in the header. Worlds which are never
+     *                       probed with {@link PolarReader#readMetadata(byte[])} (such as journal records) omit it.
+     */
+    static byte[] write(
+            @NotNull PolarWorld world, @NotNull PolarDataConverter dataConverter,
+            @Nullable RandomAccessPolarReader source, boolean includeSummary
+    ) {
         // Write the compressed content first
-        var contentBytes = NetworkBuffer.makeArray(content -> {
-            content.write(BYTE, world.minSection());
-            content.write(BYTE, world.maxSection());
-            content.write(BYTE_ARRAY, world.userData());
-
-            content.write(VAR_INT, world.chunks().size());
-            for (var chunk : world.chunks()) {
-                writeChunk(content, chunk, world.maxSection() - world.minSection() + 1);
-            }
-        });
+        var snapshot = snapshot(world, dataConverter, source);
+        var out = new ByteArrayOutputStream();
+        final long contentLength;
+        try {
+            contentLength = writeContent(world, source, snapshot, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not possible when writing to memory
+        }
+        var contentBytes = out.toByteArray();
 
         // Create final buffer
         return NetworkBuffer.makeArray(buffer -> {
-            buffer.write(INT, PolarWorld.MAGIC_NUMBER);
-            buffer.write(SHORT, PolarWorld.VERSION_IMPROVED_LIGHT);
-            buffer.write(VAR_INT, dataConverter.dataVersion());
-            buffer.write(BYTE, (byte) world.compression().ordinal());
+            writeHeader(buffer, world, dataConverter, contentBytes.length,
+                    includeSummary ? snapshot.summary(world, contentLength) : null);
             switch (world.compression()) {
-                case NONE -> {
-                    buffer.write(VAR_INT, contentBytes.length);
-                    buffer.write(RAW_BYTES, contentBytes);
-                }
-                case ZSTD -> {
-                    buffer.write(VAR_INT, contentBytes.length);
-                    buffer.write(RAW_BYTES, Zstd.compress(contentBytes));
-                }
+                // Chunks are already compressed individually if using ZSTD_CHUNKED
+                case NONE, ZSTD_CHUNKED -> buffer.write(RAW_BYTES, contentBytes);
+                case ZSTD -> buffer.write(RAW_BYTES, Zstd.compress(contentBytes));
+                case ZSTD_DICTIONARY -> buffer.write(RAW_BYTES, requireDictionary(world).compress(contentBytes));
             }
         });
     }
 
-    private static void writeChunk(@NotNull NetworkBuffer buffer, @NotNull PolarChunk chunk, int sectionCount) {
-        buffer.write(VAR_INT, chunk.x());
-        buffer.write(VAR_INT, chunk.z());
+    /**
+     * Streaming variant of {@link #write(PolarWorld, PolarDataConverter, RandomAccessPolarReader)}.
+     */
+    static void write(
+            @NotNull PolarWorld world, @NotNull PolarDataConverter dataConverter,
+            @Nullable RandomAccessPolarReader source, @NotNull OutputStream stream
+    ) throws IOException {
+        var snapshot = snapshot(world, dataConverter, source);
+        var out = new BufferedOutputStream(new UnclosableOutputStream(stream), STREAM_BUFFER_SIZE);
+        out.write(NetworkBuffer.makeArray(buffer ->
+                writeHeader(buffer, world, dataConverter, UNKNOWN_LENGTH, snapshot.summary(world, UNKNOWN_LENGTH))));
+
+        // Closing the compressor finishes the frame, but leaves the underlying stream open.
+        try (var content = switch (world.compression()) {
+            case NONE, ZSTD_CHUNKED -> new UnclosableOutputStream(out);
+            case ZSTD -> new ZstdOutputStream(out);
+            case ZSTD_DICTIONARY -> new ZstdOutputStream(out).setDict(requireDictionary(world).compressDict());
+        }) {
+            writeContent(world, source, snapshot, content);
+        }
+        out.flush();
+    }
+
+    private static void writeHeader(
+            @NotNull NetworkBuffer buffer, @NotNull PolarWorld world,
+            @NotNull PolarDataConverter dataConverter, int length,
+            @Nullable PolarMetadata.Summary summary
+    ) {
+        buffer.write(INT, PolarWorld.MAGIC_NUMBER);
+        buffer.write(SHORT, PolarWorld.LATEST_VERSION);
+        buffer.write(VAR_INT, dataConverter.dataVersion());
+        buffer.write(BYTE, (byte) world.compression().ordinal());
+        if (world.compression() == PolarWorld.CompressionType.ZSTD_DICTIONARY)
+            buffer.write(INT, requireDictionary(world).id());
+        buffer.write(VAR_INT, length);
+
+        buffer.write(BOOLEAN, summary != null);
+        if (summary == null) return;
+        buffer.write(BYTE, summary.minSection());
+        buffer.write(BYTE, summary.maxSection());
+        buffer.write(VAR_INT, summary.chunkCount());
+        buffer.write(VAR_INT, summary.minChunkX());
+        buffer.write(VAR_INT, summary.minChunkZ());
+        buffer.write(VAR_INT, summary.maxChunkX());
+        buffer.write(VAR_INT, summary.maxChunkZ());
+        buffer.write(VAR_LONG, summary.contentLength());
+    }
+
+    private static @NotNull PolarDictionary requireDictionary(@NotNull PolarWorld world) {
+        var dictionary = world.dictionary();
+        if (dictionary == null)
+            throw new IllegalStateException("ZSTD_DICTIONARY compression requires a dictionary");
+        return dictionary;
+    }
+
+    /**
+     * Writes the (uncompressed) world data, everything following the header.
+     */
+    static byte @NotNull [] writeContent(
+            @NotNull PolarWorld world, @NotNull PolarDataConverter dataConverter,
+            @Nullable RandomAccessPolarReader source
+    ) {
+        var out = new ByteArrayOutputStream();
+        try {
+            writeContent(world, source, snapshot(world, dataConverter, source), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not possible when writing to memory
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Takes the chunks to be written, so that the header (written before the content when streaming) and the
+     * content describe the same chunks.
+     */
+    private static @NotNull Snapshot snapshot(
+            @NotNull PolarWorld world, @NotNull PolarDataConverter dataConverter,
+            @Nullable RandomAccessPolarReader source
+    ) {
+        // Copy the chunks, so that a chunk replaced while writing cannot refer to palette entries which were
+        // not in the (already written) palette tables.
+        var chunks = new ArrayList<PolarChunk>(world.chunkCount());
+        world.forEachChunk(chunks::add);
+
+        final var blockTable = world.blockPaletteTable();
+        final var biomeTable = world.biomePaletteTable();
+        var sourceChunks = new LongArrayList();
+        if (source != null) {
+            for (long index : source.chunkIndices()) {
+                if (world.chunkAt(CoordConversion.chunkIndexGetX(index), CoordConversion.chunkIndexGetZ(index)) == null)
+                    sourceChunks.add(index);
+            }
+        }
 
+        // Source chunks are copied without decoding if they are compatible, including referring to the same palette
+        // table entries. Otherwise they need to be decoded up front so that their palettes are present in the table.
+        final boolean copyRaw = source != null
+                && source.version() >= PolarWorld.VERSION_PALETTE_TABLE
+                && source.dataVersion() == dataConverter.dataVersion()
+                && source.minSection() == world.minSection()
+                && source.maxSection() == world.maxSection()
+                && blockTable.startsWith(source.world().blockPaletteTable())
+                && biomeTable.startsWith(source.world().biomePaletteTable());
+        var upgradedChunks = new ArrayList<PolarChunk>();
+        if (!copyRaw) {
+            for (long index : sourceChunks) {
+                var chunk = Objects.requireNonNull(source.readChunk(CoordConversion.chunkIndexGetX(index),
+                        CoordConversion.chunkIndexGetZ(index)));
+                upgradedChunks.add(WorldHeightUtil.updateChunkHeight(chunk, world.minSection(), world.maxSection()));
+            }
+            sourceChunks.clear();
+        }
+
+        return new Snapshot(chunks, upgradedChunks, sourceChunks, copyRaw, blockTable, biomeTable);
+    }
+
+    /**
+     * @return The length of the content once decompressed, see {@link PolarMetadata.Summary#contentLength()}
+     */
+    private static long writeContent(
+            @NotNull PolarWorld world, @Nullable RandomAccessPolarReader source,
+            @NotNull Snapshot snapshot, @NotNull OutputStream stream
+    ) throws IOException {
+        final int sectionCount = world.maxSection() - world.minSection() + 1;
+        final var chunks = snapshot.chunks();
+        final var upgradedChunks = snapshot.upgradedChunks();
+        final var sourceChunks = snapshot.sourceChunks();
+        final boolean copyRaw = snapshot.copyRaw();
+
+        // The palette tables are written before any chunks, so every palette entry must be known up front.
+        // Chunks which were already written are skipped, their entries are already in the table.
+        // Cached chunks are only valid for the tables they were encoded with, the world tables may have been replaced.
+        final boolean compressChunks = world.compression() == PolarWorld.CompressionType.ZSTD_CHUNKED;
+        final boolean cacheEncoded = world.cachesEncodedChunks();
+        final var previousEncodedChunks = cacheEncoded
+                ? world.encodedChunks().chunksFor(snapshot.blockTable(), snapshot.biomeTable(), compressChunks)
+                : Long2ObjectMaps.<PolarWorld.EncodedChunk>emptyMap();
+        for (var chunk : chunks) {
+            var encoded = previousEncodedChunks.get(CoordConversion.chunkIndex(chunk.x(), chunk.z()));
+            if (encoded == null || encoded.chunk() != chunk)
+                addToPaletteTables(List.of(chunk), snapshot.blockTable(), snapshot.biomeTable());
+        }
+        addToPaletteTables(upgradedChunks, snapshot.blockTable(), snapshot.biomeTable());
+        // Every entry is known now, so the tables are frozen to be read by the encoding threads without locking
+        final var blockTable = snapshot.blockTable().freeze();
+        final var biomeTable = snapshot.biomeTable().freeze();
+
+        var content = new ContentOutputStream(stream);
+        content.write(buffer -> {
+            buffer.write(BYTE, world.minSection());
+            buffer.write(BYTE, world.maxSection());
+            buffer.write(BYTE_ARRAY, world.userData());
+
+            buffer.write(STRING.list(), Arrays.asList(blockTable.entries()));
+            buffer.write(STRING.list(), Arrays.asList(biomeTable.entries()));
+        });
+
+        final int chunkCount = chunks.size() + upgradedChunks.size() + sourceChunks.size();
+        var chunkIndex = new ArrayList<IndexEntry>(chunkCount);
+        content.write(buffer -> buffer.write(VAR_INT, chunkCount));
+        // Chunks are encoded independently of each other (the palette tables are complete at this point), so they
+        // are encoded in parallel and then written in order.
+        // Chunks which have not been replaced since the last write are not encoded again
+        var encodedChunks = cacheEncoded ? new Long2ObjectOpenHashMap<PolarWorld.EncodedChunk>(chunks.size()) : null;
+        encodeInOrder(chunks, chunk -> {
+            var previous = previousEncodedChunks.get(CoordConversion.chunkIndex(chunk.x(), chunk.z()));
+            return previous != null && previous.chunk() == chunk ? previous
+                    : new PolarWorld.EncodedChunk(chunk, encodeChunk(chunk, sectionCount, blockTable, biomeTable, compressChunks));
+        }, entry -> {
+            var chunk = entry.chunk();
+            if (encodedChunks != null) encodedChunks.put(CoordConversion.chunkIndex(chunk.x(), chunk.z()), entry);
+            writeChunkEntry(content, chunk.x(), chunk.z(), entry.data(), compressChunks, chunkIndex);
+        });
+        // Also drops a cache left over from before the compression was changed
+        world.setEncodedChunks(encodedChunks != null
+                ? new PolarWorld.EncodedChunks(snapshot.blockTable(), snapshot.biomeTable(), compressChunks, encodedChunks)
+                : PolarWorld.EncodedChunks.EMPTY);
+        encodeInOrder(upgradedChunks, chunk -> new PolarWorld.EncodedChunk(chunk,
+                        encodeChunk(chunk, sectionCount, blockTable, biomeTable, compressChunks)),
+                entry -> writeChunkEntry(content, entry.chunk().x(), entry.chunk().z(), entry.data(), compressChunks, chunkIndex));
+        // Compressed chunks can even be copied without recompressing them
+        final boolean copyStored = copyRaw && compressChunks && source.compression() == world.compression();
+        for (long index : sourceChunks) {
+            int x = CoordConversion.chunkIndexGetX(index), z = CoordConversion.chunkIndexGetZ(index);
+            if (copyStored) {
+                writeChunkEntry(content, x, z, source.readStoredChunkData(x, z), true, chunkIndex);
+            } else {
+                var chunkData = source.readChunkData(x, z);
+                writeChunkEntry(content, x, z, compressChunks ? compressChunkData(chunkData) : chunkData, compressChunks, chunkIndex);
+            }
+        }
+
+        // Chunk index, written last so that offsets are known
+        long indexOffset = content.position();
+        content.write(buffer -> {
+            for (var entry : chunkIndex) {
+                buffer.write(VAR_INT, entry.x());
+                buffer.write(VAR_INT, entry.z());
+                buffer.write(VAR_LONG, entry.offset());
+                buffer.write(VAR_INT, entry.length());
+            }
+            buffer.write(LONG, indexOffset);
+        });
+        return content.decompressedLength();
+    }
+
+    /**
+     * Encodes the chunks a window at a time (in parallel if the window is large enough), passing each window to
+     * the writer in order before encoding the next.
+     */
+    private static void encodeInOrder(
+            @NotNull List<PolarChunk> chunks,
+            @NotNull Function<PolarChunk, PolarWorld.EncodedChunk> encoder,
+            @NotNull EncodedChunkWriter writer
+    ) throws IOException {
+        var window = new PolarWorld.EncodedChunk[Math.min(chunks.size(), ENCODE_WINDOW)];
+        for (int start = 0; start < chunks.size(); start += window.length) {
+            final int offset = start, count = Math.min(window.length, chunks.size() - start);
+            var indices = IntStream.range(0, count);
+            (count >= PARALLEL_ENCODE_THRESHOLD ? indices.parallel() : indices)
+                    .forEach(i -> window[i] = encoder.apply(chunks.get(offset + i)));
+            for (int i = 0; i < count; i++) {
+                writer.write(window[i]);
+                window[i] = null;
+            }
+        }
+    }
+
+    private static byte @NotNull [] encodeChunk(
+            @NotNull PolarChunk chunk, int sectionCount,
+            @NotNull PaletteTable.Frozen blockTable, @NotNull PaletteTable.Frozen biomeTable, boolean compress
+    ) {
+        var chunkData = NetworkBuffer.makeArray(b -> writeChunk(b, chunk, sectionCount, blockTable, biomeTable));
+        return compress ? compressChunkData(chunkData) : chunkData;
+    }
+
+    private static void addToPaletteTables(
+            @NotNull Collection<PolarChunk> chunks,
+            @NotNull PaletteTable blockTable, @NotNull PaletteTable biomeTable
+    ) {
+        for (var chunk : chunks) {
+            for (var section : chunk.sections()) {
+                if (section.isEmpty()) continue;
+                for (var entry : section.blockPalette()) blockTable.indexOf(entry);
+                for (var entry : section.biomePalette()) biomeTable.indexOf(entry);
+            }
+        }
+    }
+
+    private static void writeChunkEntry(
+            @NotNull ContentOutputStream content, int x, int z, byte @NotNull [] chunkData,
+            boolean compressed, @NotNull List<IndexEntry> chunkIndex
+    ) throws IOException {
+        content.write(buffer -> {
+            buffer.write(VAR_INT, x);
+            buffer.write(VAR_INT, z);
+            buffer.write(VAR_INT, chunkData.length);
+        });
+        chunkIndex.add(new IndexEntry(x, z, content.position(), chunkData.length));
+        content.write(chunkData);
+        if (compressed) content.addDecompressedLength(PolarReader.wrap(chunkData).read(VAR_INT) - chunkData.length);
+    }
+
+    private static byte @NotNull [] compressChunkData(byte @NotNull [] chunkData) {
+        return NetworkBuffer.makeArray(buffer -> {
+            buffer.write(VAR_INT, chunkData.length);
+            buffer.write(RAW_BYTES, Zstd.compress(chunkData));
+        });
+    }
+
+    private static void writeChunk(
+            @NotNull NetworkBuffer buffer, @NotNull PolarChunk chunk, int sectionCount,
+            @NotNull PaletteTable.Frozen blockTable, @NotNull PaletteTable.Frozen biomeTable
+    ) {
         assert sectionCount == chunk.sections().length : "section count and chunk section length mismatch";
 
         for (var section : chunk.sections()) {
-            writeSection(buffer, section);
+            writeSection(buffer, section, blockTable, biomeTable);
         }
 
         buffer.write(VAR_INT, chunk.blockEntities().size());
@@ -86,37 +432,87 @@ public class PolarWriter {
         buffer.write(BYTE_ARRAY, chunk.userData());
     }
 
-    private static void writeSection(@NotNull NetworkBuffer buffer, @NotNull PolarSection section) {
+    private static void writeSection(
+            @NotNull NetworkBuffer buffer, @NotNull PolarSection section,
+            @NotNull PaletteTable.Frozen blockTable, @NotNull PaletteTable.Frozen biomeTable
+    ) {
         buffer.write(BOOLEAN, section.isEmpty());
         if (section.isEmpty()) return;
 
         // Blocks
         var blockPalette = section.blockPalette();
-        buffer.write(STRING.list(), Arrays.asList(blockPalette));
+        writePaletteIndices(buffer, blockPalette, blockTable);
         if (blockPalette.length > 1) {
-            var blockData = section.blockData();
-            var bitsPerEntry = (int) Math.ceil(Math.log(blockPalette.length) / Math.log(2));
-            if (bitsPerEntry < 1) bitsPerEntry = 1;
-            buffer.write(LONG_ARRAY, PaletteUtil.pack(blockData, bitsPerEntry));
+            buffer.write(LONG_ARRAY, section.packedBlockData());
         }
 
         // Biomes
         var biomePalette = section.biomePalette();
-        buffer.write(STRING.list(), Arrays.asList(biomePalette));
+        writePaletteIndices(buffer, biomePalette, biomeTable);
         if (biomePalette.length > 1) {
-            var biomeData = section.biomeData();
-            var bitsPerEntry = (int) Math.ceil(Math.log(biomePalette.length) / Math.log(2));
-            if (bitsPerEntry < 1) bitsPerEntry = 1;
-            buffer.write(LONG_ARRAY, PaletteUtil.pack(biomeData, bitsPerEntry));
+            buffer.write(LONG_ARRAY, section.packedBiomeData());
         }
 
         // Light
-        buffer.write(BYTE, (byte) section.blockLightContent().ordinal());
-        if (section.blockLightContent() == PolarSection.LightContent.PRESENT)
-            buffer.write(RAW_BYTES, section.blockLight());
-        buffer.write(BYTE, (byte) section.skyLightContent().ordinal());
-        if (section.skyLightContent() == PolarSection.LightContent.PRESENT)
-            buffer.write(RAW_BYTES, section.skyLight());
+        writeLight(buffer, section.blockLightContent(), section.blockLight());
+        writeLight(buffer, section.skyLightContent(), section.skyLight());
+    }
+
+    private static void writeLight(
+            @NotNull NetworkBuffer buffer, @NotNull PolarSection.LightContent content,
+            byte @Nullable [] light
+    ) {
+        if (content != PolarSection.LightContent.PRESENT) {
+            buffer.write(BYTE, (byte) content.ordinal());
+            return;
+        }
+        assert light != null && light.length == PolarReader.LIGHT_DATA_SIZE : "invalid light data";
+
+        // Light is often constant or only changes between layers of the section, in which case it is stored as
+        // a single value or as runs of equal bytes.
+        int runs = 0, runLengthSize = 0;
+        for (int start = 0; start < light.length; ) {
+            int end = runEnd(light, start);
+            runs++;
+            runLengthSize += varIntSize(end - start) + 1;
+            start = end;
+        }
+
+        if (runs == 1) {
+            buffer.write(BYTE, (byte) PolarReader.LIGHT_UNIFORM);
+            buffer.write(BYTE, light[0]);
+        } else if (runLengthSize < light.length) {
+            buffer.write(BYTE, (byte) PolarReader.LIGHT_RUN_LENGTH);
+            for (int start = 0; start < light.length; ) {
+                int end = runEnd(light, start);
+                buffer.write(VAR_INT, end - start);
+                buffer.write(BYTE, light[start]);
+                start = end;
+            }
+        } else {
+            buffer.write(BYTE, (byte) PolarSection.LightContent.PRESENT.ordinal());
+            buffer.write(RAW_BYTES, light);
+        }
+    }
+
+    private static int runEnd(byte @NotNull [] data, int start) {
+        int end = start + 1;
+        while (end < data.length && data[end] == data[start]) end++;
+        return end;
+    }
+
+    private static int varIntSize(int value) {
+        return (Integer.SIZE - Integer.numberOfLeadingZeros(value) + 6) / 7;
+    }
+
+    private static void writePaletteIndices(
+            @NotNull NetworkBuffer buffer, String @NotNull [] palette,
+            @NotNull PaletteTable.Frozen table
+    ) {
+        buffer.write(VAR_INT, palette.length);
+        for (var entry : palette) {
+            buffer.write(VAR_INT, table.indexOf(entry));
+        }
     }
 
     private static void writeBlockEntity(@NotNull NetworkBuffer buffer, @NotNull PolarChunk.BlockEntity blockEntity) {
@@ -125,4 +521,105 @@ public class PolarWriter {
         buffer.write(STRING.optional(), blockEntity.id());
         buffer.write(NBT.optional(), blockEntity.data());
     }
+
+    private record IndexEntry(int x, int z, long offset, int length) {
+    }
+
+    @FunctionalInterface
+    private interface EncodedChunkWriter {
+        void write(@NotNull PolarWorld.EncodedChunk chunk) throws IOException;
+    }
+
+    /**
+     * The chunks to write: those in the world, those decoded from the source, and those copied from the source.
+     * Along with the palette tables they are written with.
+     */
+    private record Snapshot(
+            @NotNull List<PolarChunk> chunks, @NotNull List<PolarChunk> upgradedChunks,
+            @NotNull LongArrayList sourceChunks, boolean copyRaw,
+            @NotNull PaletteTable blockTable, @NotNull PaletteTable biomeTable
+    ) {
+
+        @NotNull PolarMetadata.Summary summary(@NotNull PolarWorld world, long contentLength) {
+            int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+            for (var chunk : chunks) {
+                minX = Math.min(minX, chunk.x());
+                minZ = Math.min(minZ, chunk.z());
+                maxX = Math.max(maxX, chunk.x());
+                maxZ = Math.max(maxZ, chunk.z());
+            }
+            for (var chunk : upgradedChunks) {
+                minX = Math.min(minX, chunk.x());
+                minZ = Math.min(minZ, chunk.z());
+                maxX = Math.max(maxX, chunk.x());
+                maxZ = Math.max(maxZ, chunk.z());
+            }
+            for (long index : sourceChunks) {
+                int x = CoordConversion.chunkIndexGetX(index), z = CoordConversion.chunkIndexGetZ(index);
+                minX = Math.min(minX, x);
+                minZ = Math.min(minZ, z);
+                maxX = Math.max(maxX, x);
+                maxZ = Math.max(maxZ, z);
+            }
+
+            int chunkCount = chunks.size() + upgradedChunks.size() + sourceChunks.size();
+            if (chunkCount == 0) minX = minZ = maxX = maxZ = 0;
+            return new PolarMetadata.Summary(world.minSection(), world.maxSection(), chunkCount,
+                    minX, minZ, maxX, maxZ, contentLength);
+        }
+    }
+
+    /**
+     * Tracks the position within the world content, which chunk index offsets are relative to.
+     */
+    private static final class ContentOutputStream {
+        private final OutputStream out;
+        private long position = 0;
+        private long decompressedDelta = 0;
+
+        ContentOutputStream(@NotNull OutputStream out) {
+            this.out = out;
+        }
+
+        long position() {
+            return position;
+        }
+
+        /**
+         * Returns the length of the content written so far, counting individually compressed chunks at their
+         * decompressed length.
+         */
+        long decompressedLength() {
+            return position + decompressedDelta;
+        }
+
+        void addDecompressedLength(long delta) {
+            decompressedDelta += delta;
+        }
+
+        void write(@NotNull Consumer<NetworkBuffer> writer) throws IOException {
+            write(NetworkBuffer.makeArray(writer));
+        }
+
+        void write(byte @NotNull [] data) throws IOException {
+            out.write(data);
+            position += data.length;
+        }
+    }
+
+    private static final class UnclosableOutputStream extends FilterOutputStream {
+        UnclosableOutputStream(@NotNull OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte @NotNull [] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
 }
@@ -0,0 +1,213 @@
+package net.hollowcube.polar;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minestom.server.coordinate.CoordConversion;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static net.hollowcube.polar.PolarReader.assertThat;
+import static net.minestom.server.network.NetworkBuffer.*;
+
+/**
+ * Reads single chunks from a Polar file using the chunk index present since {@link PolarWorld#VERSION_CHUNK_INDEX}.
+ *
+ * <p>Only uncompressed and {@link PolarWorld.CompressionType#ZSTD_CHUNKED} worlds are supported, chunks are read
+ * directly from disk as they are requested. Worlds compressed as a single zstd frame would have to be decompressed
+ * in full and kept in memory, which defeats the purpose of random access, so they are rejected.</p>
+ */
+final class RandomAccessPolarReader implements Closeable {
+    private static final int TRAILER_SIZE = Long.BYTES;
+
+    /**
+     * Returns true if worlds with the given compression can be read randomly.
+     */
+    static boolean supports(@NotNull PolarWorld.CompressionType compression) {
+        return compression == PolarWorld.CompressionType.NONE || compression == PolarWorld.CompressionType.ZSTD_CHUNKED;
+    }
+
+    /**
+     * Opens the world at the given path, or returns null if the world predates the chunk index and
+     * cannot be read randomly.
+     *
+     * @throws PolarReader.Error if the world is compressed as a single zstd frame
+     */
+    static @Nullable RandomAccessPolarReader open(@NotNull Path path, @NotNull PolarDataConverter dataConverter) throws IOException {
+        var channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            var reader = open(channel, dataConverter);
+            if (reader == null) channel.close();
+            return reader;
+        } catch (Throwable t) {
+            channel.close();
+            throw t;
+        }
+    }
+
+    private static @Nullable RandomAccessPolarReader open(@NotNull FileChannel channel, @NotNull PolarDataConverter dataConverter) throws IOException {
+        long fileSize = channel.size();
+        var headerBuffer = PolarReader.wrap(readFully(channel, 0, (int) Math.min(fileSize, PolarReader.MAX_HEADER_SIZE)));
+        var header = PolarReader.readHeader(headerBuffer, dataConverter);
+        if (header.version() < PolarWorld.VERSION_CHUNK_INDEX) return null;
+
+        assertThat(supports(header.compression()), "Random access is not supported for " + header.compression()
+                + " compression, use " + PolarWorld.CompressionType.ZSTD_CHUNKED + " instead");
+
+        long contentStart = headerBuffer.readIndex();
+        return new RandomAccessPolarReader(header, dataConverter, channel, contentStart, fileSize - contentStart);
+    }
+
+    private final short version;
+    private final int dataVersion;
+    private final PolarWorld.CompressionType compression;
+    private final PolarDataConverter dataConverter;
+
+    private final FileChannel channel;
+    private final long contentStart;
+
+    private final PolarWorld world;
+    private final PolarReader.PaletteTables paletteTables;
+    private final Long2ObjectMap<IndexEntry> chunkIndex = new Long2ObjectOpenHashMap<>();
+
+    private RandomAccessPolarReader(
+            @NotNull PolarReader.Header header, @NotNull PolarDataConverter dataConverter,
+            @NotNull FileChannel channel, long contentStart, long contentLength
+    ) {
+        this.version = header.version();
+        this.dataVersion = header.dataVersion();
+        this.compression = header.compression();
+        this.dataConverter = dataConverter;
+        this.channel = channel;
+        this.contentStart = contentStart;
+
+        // Chunk index, located using the trailing offset
+        assertThat(contentLength >= TRAILER_SIZE, "Missing chunk index");
+        long indexOffset = PolarReader.wrap(read(contentLength - TRAILER_SIZE, TRAILER_SIZE)).read(LONG);
+        assertThat(indexOffset >= 0 && indexOffset <= contentLength - TRAILER_SIZE, "Invalid chunk index offset");
+        var indexBuffer = PolarReader.wrap(read(indexOffset, (int) (contentLength - TRAILER_SIZE - indexOffset)));
+        long firstChunkOffset = indexOffset;
+        while (indexBuffer.readableBytes() > 0) {
+            int x = indexBuffer.read(VAR_INT), z = indexBuffer.read(VAR_INT);
+            var entry = new IndexEntry(indexBuffer.read(VAR_LONG), indexBuffer.read(VAR_INT));
+            chunkIndex.put(CoordConversion.chunkIndex(x, z), entry);
+            firstChunkOffset = Math.min(firstChunkOffset, entry.offset());
+        }
+
+        // World metadata, everything before the first chunk
+        var worldBuffer = PolarReader.wrap(read(0, (int) firstChunkOffset));
+        byte minSection = worldBuffer.read(BYTE), maxSection = worldBuffer.read(BYTE);
+        assertThat(minSection < maxSection, "Invalid section range");
+        byte[] userData = worldBuffer.read(BYTE_ARRAY);
+        this.paletteTables = PolarReader.readPaletteTables(dataConverter, version, dataVersion, worldBuffer);
+        this.world = new PolarWorld(version, dataVersion, header.compression(), minSection, maxSection, userData,
+                List.of(), paletteTables.blockTable(), paletteTables.biomeTable());
+        if (compression == PolarWorld.CompressionType.ZSTD_DICTIONARY)
+            this.world.setCompression(PolarReader.dictionary(header.dictionaryId()));
+    }
+
+    public short version() {
+        return version;
+    }
+
+    public int dataVersion() {
+        return dataVersion;
+    }
+
+    public @NotNull PolarWorld.CompressionType compression() {
+        return compression;
+    }
+
+    public byte minSection() {
+        return world.minSection();
+    }
+
+    public byte maxSection() {
+        return world.maxSection();
+    }
+
+    /**
+     * Returns a world containing the metadata of this file, but no chunks.
+     */
+    public @NotNull PolarWorld world() {
+        return world;
+    }
+
+    public @NotNull LongSet chunkIndices() {
+        return chunkIndex.keySet();
+    }
+
+    public boolean hasChunk(int x, int z) {
+        return chunkIndex.containsKey(CoordConversion.chunkIndex(x, z));
+    }
+
+    /**
+     * Reads and decodes the chunk at the given position, or returns null if it is not present.
+     *
+     * @throws UncheckedIOException if the chunk could not be read from disk
+     */
+    public @Nullable PolarChunk readChunk(int x, int z) {
+        var chunkData = readChunkData(x, z);
+        if (chunkData == null) return null;
+        return PolarReader.readChunk(dataConverter, version, dataVersion, paletteTables,
+                PolarReader.wrap(chunkData), x, z, world.maxSection() - world.minSection() + 1);
+    }
+
+    /**
+     * Reads the raw (uncompressed) chunk data at the given position, or returns null if it is not present.
+     *
+     * @throws UncheckedIOException if the chunk could not be read from disk
+     */
+    public byte @Nullable [] readChunkData(int x, int z) {
+        var chunkData = readStoredChunkData(x, z);
+        if (chunkData == null || compression != PolarWorld.CompressionType.ZSTD_CHUNKED) return chunkData;
+        return PolarReader.decompressChunkData(chunkData);
+    }
+
+    /**
+     * Reads the chunk data at the given position exactly as it is stored, which may be compressed.
+     *
+     * @throws UncheckedIOException if the chunk could not be read from disk
+     */
+    public byte @Nullable [] readStoredChunkData(int x, int z) {
+        var entry = chunkIndex.get(CoordConversion.chunkIndex(x, z));
+        if (entry == null) return null;
+        return read(entry.offset(), entry.length());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private byte @NotNull [] read(long offset, int length) {
+        try {
+            return readFully(channel, contentStart + offset, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static byte @NotNull [] readFully(@NotNull FileChannel channel, long position, int length) throws IOException {
+        var bytes = new byte[length];
+        var buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new EOFException("Unexpected end of polar file");
+        }
+        return bytes;
+    }
+
+    private record IndexEntry(long offset, int length) {
+    }
+}
@@ -0,0 +1,118 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.command.builder.arguments.minecraft.ArgumentBlockState;
+import net.minestom.server.command.builder.exception.ArgumentSyntaxException;
+import net.minestom.server.instance.block.Block;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the resolution of block state strings and biome names to their ids (and of state ids back to block state
+ * strings), shared by every loader in the process.
+ * <p>
+ * Parsing a block state is by far the most expensive part of loading a section, while a world only ever uses a few
+ * hundred distinct states. The cache belongs to the current {@link MinecraftServer#process()}, and is discarded if
+ * the server is initialized again (eg between tests) since ids may differ. Failed lookups are cached as {@code -1}.
+ */
+final class RegistryCache {
+    private static volatile Generation current = new Generation(null);
+    // Indexed by state id. Block states are static data, so this does not need to belong to a generation.
+    private static volatile String[] blockStateNames = new String[0];
+
+    private RegistryCache() {
+    }
+
+    /**
+     * Returns the state id of the given block state string, or -1 if it could not be parsed.
+     */
+    static int blockStateId(@NotNull String blockState) {
+        var blockStateIds = generation().blockStateIds;
+        var stateId = blockStateIds.get(blockState);
+        if (stateId != null) return stateId;
+        return blockStateIds.computeIfAbsent(blockState, RegistryCache::parseBlockState);
+    }
+
+    /**
+     * Returns the id of the given biome in the server biome registry, or -1 if it does not exist.
+     * <p>
+     * Only valid for {@link PolarWorldAccess#DEFAULT}, other world accesses may resolve biomes differently.
+     */
+    static int biomeId(@NotNull String biome) {
+        var biomeIds = generation().biomeIds;
+        var biomeId = biomeIds.get(biome);
+        if (biomeId != null) return biomeId;
+        return biomeIds.computeIfAbsent(biome, PolarWorldAccess.DEFAULT::getBiomeId);
+    }
+
+    /**
+     * Returns the block state string (eg {@code minecraft:oak_stairs[facing=east,...]}) of the given state id.
+     */
+    static @NotNull String blockStateName(int stateId) {
+        var names = blockStateNames;
+        if (stateId < names.length) {
+            var name = names[stateId];
+            if (name != null) return name;
+        } else {
+            synchronized (RegistryCache.class) {
+                names = blockStateNames;
+                if (stateId >= names.length)
+                    blockStateNames = names = Arrays.copyOf(names, Math.max(stateId + 1, names.length * 2));
+            }
+        }
+
+        // Racing writers store equal strings, so there is no need to synchronize
+        var name = blockToString(Objects.requireNonNull(Block.fromStateId(stateId), "unknown state id " + stateId));
+        names[stateId] = name;
+        return name;
+    }
+
+    private static @NotNull Generation generation() {
+        var generation = current;
+        var process = MinecraftServer.process();
+        if (generation.process == process) return generation;
+
+        synchronized (RegistryCache.class) {
+            generation = current;
+            if (generation.process != process)
+                current = generation = new Generation(process);
+            return generation;
+        }
+    }
+
+    private static int parseBlockState(@NotNull String blockState) {
+        try {
+            //noinspection deprecation
+            return ArgumentBlockState.staticParse(blockState).stateId();
+        } catch (ArgumentSyntaxException e) {
+            return -1;
+        }
+    }
+
+    private static @NotNull String blockToString(@NotNull Block block) {
+        var builder = new StringBuilder(block.name());
+        if (block.properties().isEmpty()) return builder.toString();
+
+        builder.append('[');
+        for (var entry : block.properties().entrySet()) {
+            builder.append(entry.getKey())
+                    .append('=')
+                    .append(entry.getValue())
+                    .append(',');
+        }
+        builder.deleteCharAt(builder.length() - 1);
+        builder.append(']');
+
+        return builder.toString();
+    }
+
+    private record Generation(Object process, Map<String, Integer> blockStateIds, Map<String, Integer> biomeIds) {
+        Generation(Object process) {
+            this(process, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+}
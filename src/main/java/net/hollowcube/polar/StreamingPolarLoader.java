@@ -2,12 +2,9 @@ package net.hollowcube.polar;
 
 import com.github.luben.zstd.Zstd;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.objects.Object2IntMap;
-import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minestom.server.MinecraftServer;
-import net.minestom.server.command.builder.arguments.minecraft.ArgumentBlockState;
-import net.minestom.server.command.builder.exception.ArgumentSyntaxException;
 import net.minestom.server.coordinate.CoordConversion;
+import net.minestom.server.instance.Chunk;
 import net.minestom.server.instance.InstanceContainer;
 import net.minestom.server.instance.Section;
 import net.minestom.server.instance.block.Block;
@@ -19,7 +16,11 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static net.hollowcube.polar.PolarLoader.*;
 import static net.hollowcube.polar.PolarReader.*;
@@ -30,25 +31,36 @@ import static net.minestom.server.network.PolarBufferAccessWidener.networkBuffer
 import static net.minestom.server.network.PolarBufferAccessWidener.networkBufferView;
 
 final class StreamingPolarLoader {
+    // Chunks decoded (or decompressed) ahead of the one being added to the instance
+    private static final int MAX_IN_FLIGHT = Runtime.getRuntime().availableProcessors() * 4;
+
     private final InstanceContainer instance;
     private final PolarDataConverter dataConverter;
     private final PolarWorldAccess worldAccess;
     private final boolean loadLighting;
+    private final ChunkSelector selector;
+    // Only used to decode (and discard) unselected chunks from worlds without palette tables
+    private final PaletteTables legacyPaletteTables = new PaletteTables(new String[0], new String[0]);
 
     private int version, dataVersion;
+    private PolarWorld.CompressionType compression;
+
+    // Resolved palette tables, only present since VERSION_PALETTE_TABLE
+    private int[] blockStateTable, biomeIdTable;
 
-    private final Object2IntMap<String> blockToStateIdCache = new Object2IntOpenHashMap<>();
-    private final Object2IntMap<String> biomeToIdCache = new Object2IntOpenHashMap<>();
+    private final Map<String, Integer> biomeToIdCache = new ConcurrentHashMap<>();
     private final int plainsBiomeId;
 
     StreamingPolarLoader(
             @NotNull InstanceContainer instance, @NotNull PolarDataConverter dataConverter,
-            @Nullable PolarWorldAccess worldAccess, boolean loadLighting
+            @Nullable PolarWorldAccess worldAccess, boolean loadLighting,
+            @NotNull ChunkSelector selector
     ) {
         this.instance = instance;
         this.dataConverter = dataConverter;
         this.worldAccess = worldAccess;
         this.loadLighting = loadLighting;
+        this.selector = selector;
 
         var searchWorldAccess = Objects.requireNonNullElse(worldAccess, PolarWorldAccess.DEFAULT);
         this.plainsBiomeId = searchWorldAccess.getBiomeId(Biome.PLAINS.name());
@@ -57,7 +69,13 @@ final class StreamingPolarLoader {
         }
     }
 
-    public void loadAllSequential(@NotNull ReadableByteChannel channel, long fileSize) throws IOException {
+    /**
+     * Loads every chunk of the world into the instance.
+     *
+     * @param parallel Whether chunks may be built on a pool of workers (and so call the world access and data
+     *                 converter concurrently), otherwise they are all built on the calling thread.
+     */
+    public void loadAll(@NotNull ReadableByteChannel channel, long fileSize, boolean parallel) throws IOException {
         final var buffer = readHeader(channel, fileSize);
 
         byte minSection = buffer.read(BYTE), maxSection = buffer.read(BYTE);
@@ -73,61 +91,159 @@ final class StreamingPolarLoader {
             buffer.advanceRead(userDataLength);
         }
 
+        // Palette tables, each entry is resolved once for the entire world
+        if (version >= PolarWorld.VERSION_PALETTE_TABLE) {
+            var paletteTables = readPaletteTables(dataConverter, (short) version, dataVersion, buffer);
+            blockStateTable = new int[paletteTables.blocks().length];
+            for (int i = 0; i < blockStateTable.length; i++)
+                blockStateTable[i] = blockStateId(paletteTables.blocks()[i]);
+            biomeIdTable = new int[paletteTables.biomes().length];
+            for (int i = 0; i < biomeIdTable.length; i++)
+                biomeIdTable[i] = biomeId(paletteTables.biomes()[i]);
+        }
+
         // Chunk data
         int chunkCount = buffer.read(VAR_INT);
-        for (int i = 0; i < chunkCount; i++) {
-            readChunk(buffer, minSection, maxSection);
+        if (parallel && (compression == PolarWorld.CompressionType.ZSTD_CHUNKED || version >= PolarWorld.VERSION_CHUNK_INDEX)) {
+            loadChunksPipelined(buffer, chunkCount, minSection, maxSection);
+        } else if (compression == PolarWorld.CompressionType.ZSTD_CHUNKED) {
+            // Each chunk is a separate zstd frame, decompress them in parallel ahead of loading them in order.
+            var pendingChunks = new ArrayDeque<PendingChunk>(MAX_IN_FLIGHT);
+            for (int i = 0; i < chunkCount; i++) {
+                final int chunkX = buffer.read(VAR_INT), chunkZ = buffer.read(VAR_INT);
+                final int length = buffer.read(VAR_INT);
+                if (!selector.test(chunkX, chunkZ)) {
+                    buffer.advanceRead(length);
+                    continue;
+                }
+                final byte[] chunkData = buffer.read(NetworkBuffer.FixedRawBytes(length));
+                pendingChunks.add(new PendingChunk(chunkX, chunkZ,
+                        CompletableFuture.supplyAsync(() -> PolarReader.decompressChunkData(chunkData))));
+
+                if (pendingChunks.size() >= MAX_IN_FLIGHT)
+                    readPendingChunk(pendingChunks.poll(), minSection, maxSection);
+            }
+            while (!pendingChunks.isEmpty())
+                readPendingChunk(pendingChunks.poll(), minSection, maxSection);
+        } else {
+            for (int i = 0; i < chunkCount; i++) {
+                final int chunkX = buffer.read(VAR_INT), chunkZ = buffer.read(VAR_INT);
+                boolean selected = selector.test(chunkX, chunkZ);
+                if (version >= PolarWorld.VERSION_CHUNK_INDEX) {
+                    int length = buffer.read(VAR_INT);
+                    if (!selected) {
+                        buffer.advanceRead(length);
+                        continue;
+                    }
+                }
+
+                if (selected) {
+                    readChunk(buffer, chunkX, chunkZ, minSection, maxSection);
+                } else {
+                    // Chunks have no length prefix before VERSION_CHUNK_INDEX, so they must be decoded to be skipped
+                    PolarReader.readChunk(dataConverter, (short) version, dataVersion, legacyPaletteTables,
+                            buffer, chunkX, chunkZ, maxSection - minSection + 1);
+                }
+            }
         }
 
+        // The chunk index is only useful for random access
+        if (version >= PolarWorld.VERSION_CHUNK_INDEX)
+            buffer.advanceRead(buffer.readableBytes());
+
         Check.stateCondition(buffer.readableBytes() > 0, "Unexpected extra data at end of buffer");
     }
 
     /**
      * Reads the header and returns a network buffer containing the decompressed content.
      *
-     * <p>Always populates {@link #version} and {@link #dataVersion}.</p>
+     * <p>Always populates {@link #version}, {@link #dataVersion} and {@link #compression}.</p>
      */
     private NetworkBuffer readHeader(@NotNull ReadableByteChannel channel, long fileSize) throws IOException {
         final var buffer = NetworkBuffer.staticBuffer(fileSize, MinecraftServer.process());
         buffer.readChannel(channel);
 
-        var magicNumber = buffer.read(INT);
-        assertThat(magicNumber == PolarWorld.MAGIC_NUMBER, "Invalid magic number");
+        var header = PolarReader.readHeader(buffer, dataConverter);
+        this.version = header.version();
+        this.dataVersion = header.dataVersion();
+        this.compression = header.compression();
+        var compressedDataLength = header.length();
 
-        this.version = buffer.read(SHORT);
-        validateVersion(this.version);
-        this.dataVersion = version >= PolarWorld.VERSION_DATA_CONVERTER
-                ? buffer.read(VAR_INT)
-                : dataConverter.defaultDataVersion();
+        return switch (compression) {
+            // Chunks are decompressed individually as they are read with ZSTD_CHUNKED
+            case NONE, ZSTD_CHUNKED -> buffer;
+            // Streamed writes do not know the length up front, those are decompressed as a stream instead.
+            case ZSTD -> compressedDataLength == PolarWriter.UNKNOWN_LENGTH
+                    ? PolarReader.wrap(PolarReader.decompressContent(header, buffer.read(RAW_BYTES)))
+                    : decompressDirect(buffer, compressedDataLength);
+            // Dictionary decompression is not supported by the direct api, so go through a heap array instead.
+            case ZSTD_DICTIONARY -> PolarReader.wrap(PolarReader.decompressContent(header, buffer.read(RAW_BYTES)));
+        };
+    }
 
-        var compression = PolarWorld.CompressionType.fromId(buffer.read(BYTE));
-        assertThat(compression != null, "Invalid compression type");
-        var compressedDataLength = buffer.read(VAR_INT);
+    private static @NotNull NetworkBuffer decompressDirect(@NotNull NetworkBuffer buffer, int length) {
+        // This is using some internals of Minestom, so worth an explanation. As of 1.21.3, network buffer is
+        // backed by a directly allocated array via Unsafe. Zstd supports direct decompression, so we can use
+        // the direct addresses of the two buffers for decompression.
+        final var dst = NetworkBuffer.staticBuffer(length, MinecraftServer.process());
+        final var srcAddress = networkBufferAddress(buffer) + buffer.readIndex();
+        final var dstAddress = networkBufferAddress(dst);
+        long count = Zstd.decompressUnsafe(dstAddress, length, srcAddress,
+                                           buffer.readableBytes());
+        if (Zstd.isError(count)) {
+            throw new RuntimeException("decompression failed: " + Zstd.getErrorName(count));
+        }
+        dst.writeIndex(length);
+        // The original buffer is useless and may be collected at this point.
+        return dst;
+    }
 
-        return switch (compression) {
-            case NONE -> buffer;
-            case ZSTD -> {
-                // This is using some internals of Minestom, so worth an explanation. As of 1.21.3, network buffer is
-                // backed by a directly allocated array via Unsafe. Zstd supports direct decompression, so we can use
-                // the direct addresses of the two buffers for decompression.
-                final var dst = NetworkBuffer.staticBuffer(compressedDataLength, MinecraftServer.process());
-                final var srcAddress = networkBufferAddress(buffer) + buffer.readIndex();
-                final var dstAddress = networkBufferAddress(dst);
-                long count = Zstd.decompressUnsafe(dstAddress, compressedDataLength, srcAddress,
-                                                   buffer.readableBytes());
-                if (Zstd.isError(count)) {
-                    throw new RuntimeException("decompression failed: " + Zstd.getErrorName(count));
-                }
-                dst.writeIndex(compressedDataLength);
-                yield dst;
-                // The original buffer is useless and may be collected at this point.
+    /**
+     * Loads the chunks using their length prefix (or zstd frame) to split them up front, so that they can be built
+     * by a pool of workers. Built chunks are added to the instance in order from the calling thread, with a bounded
+     * number in flight so that memory use stays similar to a sequential load.
+     */
+    private void loadChunksPipelined(@NotNull NetworkBuffer buffer, int chunkCount, int minSection, int maxSection) {
+        var pending = new ArrayDeque<CompletableFuture<Chunk>>(MAX_IN_FLIGHT);
+        for (int i = 0; i < chunkCount; i++) {
+            final int chunkX = buffer.read(VAR_INT), chunkZ = buffer.read(VAR_INT);
+            final int length = buffer.read(VAR_INT);
+            if (!selector.test(chunkX, chunkZ)) {
+                buffer.advanceRead(length);
+                continue;
             }
-        };
+            if (compression == PolarWorld.CompressionType.ZSTD_CHUNKED) {
+                final byte[] chunkData = buffer.read(NetworkBuffer.FixedRawBytes(length));
+                pending.add(CompletableFuture.supplyAsync(() -> {
+                    var chunkBuffer = PolarReader.wrap(PolarReader.decompressChunkData(chunkData));
+                    return buildChunk(chunkBuffer, chunkX, chunkZ, minSection, maxSection);
+                }));
+            } else {
+                final var chunkBuffer = networkBufferView(buffer, buffer.readIndex(), length);
+                buffer.advanceRead(length);
+                pending.add(CompletableFuture.supplyAsync(() ->
+                        buildChunk(chunkBuffer, chunkX, chunkZ, minSection, maxSection)));
+            }
+
+            if (pending.size() >= MAX_IN_FLIGHT)
+                unsafeCacheChunk(instance, pending.poll().join());
+        }
+        while (!pending.isEmpty())
+            unsafeCacheChunk(instance, pending.poll().join());
     }
 
-    private void readChunk(@NotNull NetworkBuffer buffer, int minSection, int maxSection) {
-        final var chunkX = buffer.read(VAR_INT);
-        final var chunkZ = buffer.read(VAR_INT);
+    private void readPendingChunk(@NotNull PendingChunk pending, int minSection, int maxSection) {
+        readChunk(PolarReader.wrap(pending.data().join()), pending.x(), pending.z(), minSection, maxSection);
+    }
+
+    private void readChunk(@NotNull NetworkBuffer buffer, int chunkX, int chunkZ, int minSection, int maxSection) {
+        unsafeCacheChunk(instance, buildChunk(buffer, chunkX, chunkZ, minSection, maxSection));
+    }
+
+    /**
+     * Reads a chunk from the buffer, without adding it to the instance. Safe to call concurrently.
+     */
+    private @NotNull Chunk buildChunk(@NotNull NetworkBuffer buffer, int chunkX, int chunkZ, int minSection, int maxSection) {
         final var chunk = instance.getChunkSupplier().createChunk(instance, chunkX, chunkZ);
         unsafeSetNeedsCompleteHeightmapRefresh(chunk, false);
         var chunkEntries = unsafeGetEntries(chunk);
@@ -162,7 +278,6 @@ final class StreamingPolarLoader {
         }
 
         unsafeChunkOnLoad(chunk);
-        unsafeCacheChunk(instance, chunk);
 
         // Load user data
         if (version > PolarWorld.VERSION_USERDATA_OPT_BLOCK_ENT_NBT) {
@@ -173,6 +288,7 @@ final class StreamingPolarLoader {
             }
             buffer.advanceRead(userDataLength);
         }
+        return chunk;
     }
 
     private void readSection(
@@ -189,41 +305,28 @@ final class StreamingPolarLoader {
             }
         } else {
             var blockData = new int[PolarSection.BLOCK_PALETTE_SIZE];
-
             var rawBlockData = buffer.read(LONG_ARRAY);
-            var bitsPerEntry = (int) Math.ceil(Math.log(blockPalette.length) / Math.log(2));
-            PaletteUtil.unpack(blockData, rawBlockData, bitsPerEntry);
-
-            for (int y = 0; y < CHUNK_SECTION_SIZE; y++) {
-                for (int z = 0; z < CHUNK_SECTION_SIZE; z++) {
-                    for (int x = 0; x < CHUNK_SECTION_SIZE; x++) {
-                        int index = y * CHUNK_SECTION_SIZE * CHUNK_SECTION_SIZE + z * CHUNK_SECTION_SIZE + x;
-                        int blockStateId = blockPalette[blockData[index]];
-                        section.blockPalette().set(x, y, z, blockStateId);
-
-                        // Vanilla block entities must be tracked in the chunk entries so they are sent to the client.
-                        var block = Block.fromStateId(blockStateId);
-                        if (chunkEntires != null && block.registry().isBlockEntity()) {
-                            int chunkY = sectionY * CHUNK_SECTION_SIZE + y;
-                            chunkEntires.putIfAbsent(CoordConversion.chunkBlockIndex(x, chunkY, z), block);
-                        }
+            PaletteUtil.unpack(blockData, rawBlockData, PolarSection.bitsPerEntry(blockPalette.length));
+
+            // Built in a single pass rather than set per block, which would resize the palette as it grows
+            section.blockPalette().setAll((x, y, z) -> {
+                int index = y * CHUNK_SECTION_SIZE * CHUNK_SECTION_SIZE + z * CHUNK_SECTION_SIZE + x;
+                return blockPalette[blockData[index]];
+            });
+
+            // Vanilla block entities must be tracked in the chunk entries so they are sent to the client.
+            if (chunkEntires != null) {
+                for (int i = 0; i < blockPalette.length; i++) {
+                    var block = Block.fromStateId(blockPalette[i]);
+                    if (block == null || !block.registry().isBlockEntity()) continue;
+                    for (int index = 0; index < blockData.length; index++) {
+                        if (blockData[index] != i) continue;
+                        int x = index & 0xF, z = (index >> 4) & 0xF, y = index >> 8;
+                        int chunkY = sectionY * CHUNK_SECTION_SIZE + y;
+                        chunkEntires.putIfAbsent(CoordConversion.chunkBlockIndex(x, chunkY, z), block);
                     }
                 }
             }
-            //            section.blockPalette().setAll((x, y, z) -> {
-            //                int index = y * CHUNK_SECTION_SIZE * CHUNK_SECTION_SIZE + z * CHUNK_SECTION_SIZE + x;
-            //                return blockPalette[blockData[index]];
-            //            });
-
-            // Below was some previous logic, leaving it around for now I would like to fix it up.
-            //            System.out.println(Arrays.toString(blockPalette));
-            //            var rawBlockData = buffer.read(LONG_ARRAY);
-            //            var bitsPerEntry = (int) Math.ceil(Math.log(blockPalette.length) / Math.log(2));
-            //
-            ////            int count = computeCount(blockPalette, rawBlockData, bitsPerEntry);
-            //            int count = 16 * 16 * 16;
-            //            directReplaceInnerPaletteBlock(section.blockPalette(), (byte) bitsPerEntry, count,
-            //                    blockPalette, rawBlockData);
         }
 
         int[] biomePalette = readBiomePalette(buffer);
@@ -231,44 +334,22 @@ final class StreamingPolarLoader {
             section.biomePalette().fill(biomePalette[0]);
         } else {
             var biomeData = new int[PolarSection.BIOME_PALETTE_SIZE];
-
             var rawBiomeData = buffer.read(LONG_ARRAY);
-            var bitsPerEntry = (int) Math.ceil(Math.log(biomePalette.length) / Math.log(2));
-            PaletteUtil.unpack(biomeData, rawBiomeData, bitsPerEntry);
-
-            for (int y = 0; y < 4; y++) {
-                for (int z = 0; z < 4; z++) {
-                    for (int x = 0; x < 4; x++) {
-                        int index = x + z * 4 + y * 16;
-                        section.biomePalette().set(x, y, z, biomePalette[biomeData[index]]);
-                    }
-                }
-            }
-            //            section.biomePalette().setAll((x, y, z) -> {
-            //                int index = x / 4 + (z / 4) * 4 + (y / 4) * 16;
-            //                return biomePalette[biomeData[index]];
-            //            });
-
-            //            var rawBiomeData = buffer.read(LONG_ARRAY);
-            //            var bitsPerEntry = (int) Math.ceil(Math.log(biomePalette.length) / Math.log(2));
-            //            // Biome count is irrelevant to the client. Though it might be worth computing it anyway here
-            //            // in case a server implementation uses it for anything.
-            //            directReplaceInnerPaletteBiome(section.biomePalette(), (byte) bitsPerEntry, 4 * 4 * 4,
-            //                    biomePalette, rawBiomeData);
+            PaletteUtil.unpack(biomeData, rawBiomeData, PolarSection.bitsPerEntry(biomePalette.length));
+
+            section.biomePalette().setAll((x, y, z) -> biomePalette[biomeData[x + z * 4 + y * 16]]);
         }
 
         if (version > PolarWorld.VERSION_UNIFIED_LIGHT) {
-            var blockLightContent = version >= PolarWorld.VERSION_IMPROVED_LIGHT
-                    ? PolarSection.LightContent.VALUES[buffer.read(BYTE)]
-                    : (buffer.read(BOOLEAN) ? PolarSection.LightContent.PRESENT : PolarSection.LightContent.MISSING);
-            byte[] blockLight = blockLightContent == PolarSection.LightContent.PRESENT ? buffer.read(LIGHT_DATA) : null;
+            int blockLightEncoding = readLightEncoding(buffer, version);
+            var blockLightContent = lightContent(blockLightEncoding);
+            byte[] blockLight = readLightData(buffer, blockLightEncoding);
             if (loadLighting && blockLightContent != PolarSection.LightContent.MISSING)
                 unsafeUpdateBlockLightArray(section.blockLight(), getLightArray(blockLightContent, blockLight));
 
-            var skyLightContent = version >= PolarWorld.VERSION_IMPROVED_LIGHT
-                    ? PolarSection.LightContent.VALUES[buffer.read(BYTE)]
-                    : (buffer.read(BOOLEAN) ? PolarSection.LightContent.PRESENT : PolarSection.LightContent.MISSING);
-            byte[] skyLight = skyLightContent == PolarSection.LightContent.PRESENT ? buffer.read(LIGHT_DATA) : null;
+            int skyLightEncoding = readLightEncoding(buffer, version);
+            var skyLightContent = lightContent(skyLightEncoding);
+            byte[] skyLight = readLightData(buffer, skyLightEncoding);
             if (loadLighting && skyLightContent != PolarSection.LightContent.MISSING)
                 unsafeUpdateSkyLightArray(section.skyLight(), getLightArray(skyLightContent, skyLight));
         } else if (buffer.read(BOOLEAN)) {
@@ -282,6 +363,13 @@ final class StreamingPolarLoader {
     }
 
     private int[] readBlockPalette(@NotNull NetworkBuffer buffer) {
+        if (blockStateTable != null) {
+            int[] blockPalette = readPaletteIndices(buffer, blockStateTable.length, MAX_BLOCK_PALETTE_SIZE);
+            for (int i = 0; i < blockPalette.length; i++)
+                blockPalette[i] = blockStateTable[blockPalette[i]];
+            return blockPalette;
+        }
+
         var rawBlockPalette = buffer.read(STRING_ARRAY);
         if (dataVersion < dataConverter.dataVersion()) {
             dataConverter.convertBlockPalette(rawBlockPalette, dataVersion, dataConverter.dataVersion());
@@ -289,76 +377,45 @@ final class StreamingPolarLoader {
         upgradeGrassInPalette(rawBlockPalette, version);
         int[] blockPalette = new int[rawBlockPalette.length];
         for (int i = 0; i < rawBlockPalette.length; i++) {
-            blockPalette[i] = blockToStateIdCache.computeIfAbsent(rawBlockPalette[i], (String key) -> {
-                try {
-                    //noinspection deprecation
-                    return ArgumentBlockState.staticParse(key).stateId();
-                } catch (ArgumentSyntaxException e) {
-                    throw new RuntimeException("Failed to parse block state: " + key, e);
-                }
-            });
+            blockPalette[i] = blockStateId(rawBlockPalette[i]);
         }
         return blockPalette;
     }
 
     private int[] readBiomePalette(@NotNull NetworkBuffer buffer) {
+        if (biomeIdTable != null) {
+            int[] biomePalette = readPaletteIndices(buffer, biomeIdTable.length, MAX_BIOME_PALETTE_SIZE);
+            for (int i = 0; i < biomePalette.length; i++)
+                biomePalette[i] = biomeIdTable[biomePalette[i]];
+            return biomePalette;
+        }
+
         var rawBiomePalette = buffer.read(STRING_ARRAY);
         int[] biomePalette = new int[rawBiomePalette.length];
         for (int i = 0; i < rawBiomePalette.length; i++) {
-            biomePalette[i] = biomeToIdCache.computeIfAbsent(rawBiomePalette[i], (String name) -> {
-                PolarWorldAccess searchWorldAccess = Objects.requireNonNullElse(this.worldAccess,
-                                                                                PolarWorldAccess.DEFAULT);
-                var biomeId = searchWorldAccess.getBiomeId(name);
-                if (biomeId == -1) {
-                    logger.error("Failed to find biome: {}", name);
-                    biomeId = this.plainsBiomeId;
-                }
-                return biomeId;
-            });
+            biomePalette[i] = biomeId(rawBiomePalette[i]);
         }
         return biomePalette;
     }
 
-    private int computeCount(int[] palette, long[] rawData, int bitsPerEntry) {
-        int zeroIndex = -1;
-        for (int i = 0; i < palette.length; i++) {
-            if (palette[i] == 0) {
-                zeroIndex = i;
-                break;
-            }
-        }
+    private int blockStateId(@NotNull String blockState) {
+        int stateId = RegistryCache.blockStateId(blockState);
+        if (stateId == -1) throw new RuntimeException("Failed to parse block state: " + blockState);
+        return stateId;
+    }
 
-        int count = 0;
-        var intsPerLong = Math.floor(64d / bitsPerEntry);
-        var intsPerLongCeil = (int) Math.ceil(intsPerLong);
-        long mask = (1L << bitsPerEntry) - 1L;
-        for (int i = 0; i < PolarSection.BLOCK_PALETTE_SIZE; i++) {
-            int longIndex = i / intsPerLongCeil;
-            int subIndex = i % intsPerLongCeil;
-
-            int index = (int) ((rawData[longIndex] >>> (bitsPerEntry * subIndex)) & mask);
-            if (index != zeroIndex) {
-                count++;
+    private int biomeId(@NotNull String biome) {
+        return biomeToIdCache.computeIfAbsent(biome, (String name) -> {
+            var biomeId = worldAccess == null || worldAccess == PolarWorldAccess.DEFAULT
+                    ? RegistryCache.biomeId(name) : worldAccess.getBiomeId(name);
+            if (biomeId == -1) {
+                logger.error("Failed to find biome: {}", name);
+                biomeId = this.plainsBiomeId;
             }
-        }
-
-        return count;
+            return biomeId;
+        });
     }
 
-    private static final NetworkBuffer.Type<String[]> STRING_ARRAY = new NetworkBuffer.Type<>() {
-
-        @Override
-        public void write(@NotNull NetworkBuffer buffer, String[] value) {
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public String[] read(@NotNull NetworkBuffer buffer) {
-            final String[] array = new String[buffer.read(VAR_INT)];
-            for (int i = 0; i < array.length; i++) {
-                array[i] = buffer.read(STRING);
-            }
-            return array;
-        }
-    };
+    private record PendingChunk(int x, int z, @NotNull CompletableFuture<byte[]> data) {
+    }
 }
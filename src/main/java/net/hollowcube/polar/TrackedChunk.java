@@ -0,0 +1,106 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.instance.DynamicChunk;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.instance.LightingChunk;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.instance.block.BlockHandler;
+import net.minestom.server.registry.RegistryKey;
+import net.minestom.server.world.biome.Biome;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A chunk which counts changes to its content, allowing {@link PolarLoader} to skip saving chunks which have not
+ * changed since they were loaded or last saved. Chunks which are not tracked are always saved.
+ * <p>
+ * Use one of the implementations as the chunk supplier of the instance, for example
+ * {@code instance.setChunkSupplier(TrackedChunk.Lighting::new)}. Changes made directly to the sections of a chunk
+ * (rather than through {@link net.minestom.server.instance.Chunk#setBlock(int, int, int, Block)} and friends) are
+ * not counted, and must be followed by {@link net.minestom.server.instance.Chunk#invalidate()} to be saved.
+ */
+@ApiStatus.Experimental
+public interface TrackedChunk {
+
+    /**
+     * Returns a number which changes whenever the blocks, biomes or light of the chunk may have changed.
+     */
+    long changeCount();
+
+    /**
+     * A tracked {@link DynamicChunk}.
+     */
+    class Dynamic extends DynamicChunk implements TrackedChunk {
+        private final AtomicLong changes = new AtomicLong();
+
+        public Dynamic(@NotNull Instance instance, int chunkX, int chunkZ) {
+            super(instance, chunkX, chunkZ);
+        }
+
+        @Override
+        public void setBlock(
+                int x, int y, int z, @NotNull Block block,
+                @Nullable BlockHandler.Placement placement, @Nullable BlockHandler.Destroy destroy
+        ) {
+            super.setBlock(x, y, z, block, placement, destroy);
+            changes.incrementAndGet();
+        }
+
+        @Override
+        public void setBiome(int x, int y, int z, @NotNull RegistryKey<Biome> biome) {
+            super.setBiome(x, y, z, biome);
+            changes.incrementAndGet();
+        }
+
+        @Override
+        public void invalidate() {
+            super.invalidate();
+            changes.incrementAndGet();
+        }
+
+        @Override
+        public long changeCount() {
+            return changes.get();
+        }
+    }
+
+    /**
+     * A tracked {@link LightingChunk}, light updates count as changes.
+     */
+    class Lighting extends LightingChunk implements TrackedChunk {
+        private final AtomicLong changes = new AtomicLong();
+
+        public Lighting(@NotNull Instance instance, int chunkX, int chunkZ) {
+            super(instance, chunkX, chunkZ);
+        }
+
+        @Override
+        public void setBlock(
+                int x, int y, int z, @NotNull Block block,
+                @Nullable BlockHandler.Placement placement, @Nullable BlockHandler.Destroy destroy
+        ) {
+            super.setBlock(x, y, z, block, placement, destroy);
+            changes.incrementAndGet();
+        }
+
+        @Override
+        public void setBiome(int x, int y, int z, @NotNull RegistryKey<Biome> biome) {
+            super.setBiome(x, y, z, biome);
+            changes.incrementAndGet();
+        }
+
+        @Override
+        public void invalidate() {
+            super.invalidate();
+            changes.incrementAndGet();
+        }
+
+        @Override
+        public long changeCount() {
+            return changes.get();
+        }
+    }
+}
@@ -9,11 +9,8 @@ public class WorldHeightUtil {
     public static @NotNull PolarWorld updateWorldHeight(@NotNull PolarWorld world, byte minSection, byte maxSection) {
         assert minSection <= maxSection : "minSection cannot be less than maxSection";
 
-        ArrayList<PolarChunk> chunks = new ArrayList<>(world.chunks().size());
-
-        for (PolarChunk chunk : world.chunks()) {
-            chunks.add(updateChunkHeight(chunk, minSection, maxSection));
-        }
+        ArrayList<PolarChunk> chunks = new ArrayList<>(world.chunkCount());
+        world.forEachChunk(chunk -> chunks.add(updateChunkHeight(chunk, minSection, maxSection)));
 
         return new PolarWorld(
                 world.version(),
@@ -30,7 +27,7 @@ public class WorldHeightUtil {
         PolarSection[] sections = new PolarSection[maxSection - minSection + 1];
 
         for (int i = 0; i <= maxSection - minSection; i++) {
-            sections[i] = i < chunk.sections().length ? chunk.sections()[i] : new PolarSection();
+            sections[i] = i < chunk.sections().length ? chunk.sections()[i] : PolarSection.EMPTY;
         }
 
         return new PolarChunk(
@@ -3,6 +3,7 @@ package net.minestom.server.network;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
+import java.lang.foreign.MemorySegment;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 
@@ -28,6 +29,17 @@ public final class PolarBufferAccessWidener {
         return viewBuffer;
     }
 
+    /**
+     * Creates a read only buffer over the given memory segment. The segment must outlive the buffer.
+     */
+    public static @NotNull NetworkBuffer networkBufferView(@NotNull MemorySegment segment) {
+        var viewBuffer = new NetworkBufferImpl(-1, segment.byteSize(), 0, 0, null, null);
+        setAddress(impl(viewBuffer), segment.address());
+        viewBuffer.writeIndex(segment.byteSize());
+        viewBuffer.readOnly();
+        return viewBuffer;
+    }
+
     public static long networkBufferAddress(@NotNull NetworkBuffer buffer) {
         return getAddress(impl(buffer));
     }
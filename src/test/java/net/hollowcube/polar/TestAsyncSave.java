@@ -0,0 +1,64 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.InstanceContainer;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.world.DimensionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestAsyncSave {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    @Test
+    void testAsyncSaveWritesWorld(@TempDir Path tempDir) throws IOException {
+        var path = tempDir.resolve("world.polar");
+
+        var loader = new PolarLoader(path).setAsyncSave(true);
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, loader);
+        instance.loadChunk(0, 0).join();
+        instance.setBlock(0, 10, 0, Block.STONE);
+        instance.saveChunksToStorage().join();
+        loader.pendingSave().join();
+
+        var world = PolarReader.read(Files.readAllBytes(path));
+        assertNotNull(world.chunkAt(0, 0));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count(), "temporary file left behind");
+        }
+    }
+
+    @Test
+    void testQueuedSavesMerged(@TempDir Path tempDir) throws IOException {
+        var path = tempDir.resolve("world.polar");
+
+        var loader = new PolarLoader(path);
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, loader);
+        instance.loadChunk(0, 0).join();
+        instance.loadChunk(1, 0).join();
+
+        instance.setBlock(0, 10, 0, Block.STONE);
+        var first = loader.saveChunksAsync(instance.getChunks());
+        instance.setBlock(16, 10, 0, Block.DIRT);
+        var second = loader.saveChunksAsync(instance.getChunks());
+        second.join();
+        assertTrue(first.isDone());
+        assertSame(second, loader.pendingSave());
+
+        var loadInstance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(path));
+        loadInstance.loadChunk(0, 0).join();
+        loadInstance.loadChunk(1, 0).join();
+        assertEquals(Block.STONE, loadInstance.getBlock(0, 10, 0));
+        assertEquals(Block.DIRT, loadInstance.getBlock(16, 10, 0));
+    }
+}
@@ -0,0 +1,48 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.coordinate.CoordConversion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestChunkMap {
+
+    @Test
+    void testConcurrentUpdates() {
+        var map = new ChunkMap();
+        var futures = new ArrayList<CompletableFuture<Void>>();
+        for (int thread = 0; thread < 8; thread++) {
+            final int x = thread;
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int z = 0; z < 500; z++)
+                    map.put(CoordConversion.chunkIndex(x, z), chunk(x, z));
+            }));
+        }
+        futures.forEach(CompletableFuture::join);
+
+        assertEquals(8 * 500, map.size());
+        assertEquals(8 * 500, map.values().size());
+        assertEquals(3, map.get(CoordConversion.chunkIndex(3, 42)).x());
+        assertNull(map.get(CoordConversion.chunkIndex(9, 0)));
+    }
+
+    @Test
+    void testValuesIsCopy() {
+        var map = new ChunkMap();
+        map.put(CoordConversion.chunkIndex(0, 0), chunk(0, 0));
+        var values = map.values();
+        map.put(CoordConversion.chunkIndex(1, 0), chunk(1, 0));
+        map.clear();
+
+        assertEquals(1, values.size());
+        assertEquals(0, map.size());
+    }
+
+    private static PolarChunk chunk(int x, int z) {
+        return new PolarChunk(x, z, new PolarSection[0], List.of(), new int[0][], new byte[0]);
+    }
+}
@@ -0,0 +1,52 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.InstanceContainer;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.world.DimensionType;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestChunkSelector {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PolarWorld.CompressionType.class, names = {"NONE", "ZSTD", "ZSTD_CHUNKED"})
+    void testReadSelected(PolarWorld.CompressionType compression) {
+        var world = TestUtil.createWorld(-3, -3, 3, 3);
+        world.setCompression(compression);
+        var worldBytes = PolarWriter.write(world);
+
+        var result = PolarReader.read(worldBytes, PolarDataConverter.NOOP, ChunkSelector.radius(1));
+        assertEquals(5, result.chunks().size());
+        assertNotNull(result.chunkAt(0, 0));
+        assertNotNull(result.chunkAt(-1, 0));
+        assertNull(result.chunkAt(1, 1));
+        assertNull(result.chunkAt(3, 3));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PolarWorld.CompressionType.class, names = {"NONE", "ZSTD", "ZSTD_CHUNKED"})
+    void testStreamLoadSelected(PolarWorld.CompressionType compression) {
+        var world = TestUtil.createWorld(-3, -3, 3, 3);
+        world.setCompression(compression);
+        var worldBytes = PolarWriter.write(world);
+
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD);
+        PolarLoader.streamLoad(instance, Channels.newChannel(new ByteArrayInputStream(worldBytes)),
+                worldBytes.length, null, null, false, false, ChunkSelector.radius(1)).join();
+
+        assertEquals(5, instance.getChunks().size());
+        assertEquals(Block.DIAMOND_BLOCK, instance.getBlock(16, 10, 0));
+        assertNull(instance.getChunk(1, 1));
+    }
+}
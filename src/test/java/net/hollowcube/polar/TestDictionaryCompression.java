@@ -0,0 +1,65 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.InstanceContainer;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.world.DimensionType;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestDictionaryCompression {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    private static final Block[] BLOCKS = {Block.STONE, Block.DIRT, Block.GRASS_BLOCK, Block.OAK_PLANKS, Block.GLASS};
+
+    @Test
+    void testDictionaryRoundTrip() {
+        var samples = new ArrayList<PolarWorld>();
+        for (int i = 0; i < 200; i++) samples.add(createWorld(i));
+        var dictionary = PolarDictionary.train(samples, 16 * 1024);
+        PolarReader.registerDictionary(dictionary);
+
+        var world = createWorld(1234);
+        world.setCompression(dictionary);
+        var result = PolarReader.read(PolarWriter.write(world));
+
+        assertEquals(PolarWorld.CompressionType.ZSTD_DICTIONARY, result.compression());
+        assertEquals(dictionary.id(), result.dictionary().id());
+        assertEquals(1, result.chunks().size());
+
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(result));
+        instance.loadChunk(0, 0).join();
+        assertEquals(BLOCKS[1234 % BLOCKS.length], instance.getBlock(1234 % 16, 1234 % 64, 0));
+    }
+
+    @Test
+    void testDictionaryFromData() {
+        var samples = new ArrayList<PolarWorld>();
+        for (int i = 0; i < 200; i++) samples.add(createWorld(i));
+        var dictionary = PolarDictionary.train(samples, 16 * 1024);
+
+        var copy = PolarDictionary.of(dictionary.data());
+        assertEquals(dictionary.id(), copy.id());
+        assertArrayEquals(dictionary.data(), copy.data());
+    }
+
+    private static @NotNull PolarWorld createWorld(int seed) {
+        var world = new PolarWorld();
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(world));
+        instance.loadChunk(0, 0).join();
+        for (int x = 0; x < 16; x++) {
+            instance.setBlock(x, 0, 0, Block.BEDROCK);
+        }
+        instance.setBlock(seed % 16, seed % 64, 0, BLOCKS[seed % BLOCKS.length]);
+        instance.saveChunksToStorage().join();
+        return world;
+    }
+}
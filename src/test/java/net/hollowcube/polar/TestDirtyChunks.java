@@ -0,0 +1,114 @@
+package net.hollowcube.polar;
+
+import net.kyori.adventure.key.Key;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.InstanceContainer;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.instance.block.BlockHandler;
+import net.minestom.server.world.DimensionType;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestDirtyChunks {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    @Test
+    void testUnchangedChunksSkipped() {
+        var world = TestUtil.createWorld(0, 0, 1, 0);
+        var unchanged = world.chunkAt(1, 0);
+
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(world));
+        instance.setChunkSupplier(TrackedChunk.Dynamic::new);
+        instance.loadChunk(0, 0).join();
+        instance.loadChunk(1, 0).join();
+        instance.setBlock(0, 20, 0, Block.GOLD_BLOCK);
+        var changed = world.chunkAt(0, 0);
+        instance.saveChunksToStorage().join();
+
+        assertSame(unchanged, world.chunkAt(1, 0));
+        assertNotSame(changed, world.chunkAt(0, 0));
+    }
+
+    @Test
+    void testUntrackedChunksAlwaysSaved() {
+        var world = TestUtil.createWorld(0, 0, 1, 0);
+        var before = world.chunkAt(1, 0);
+
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(world));
+        instance.loadChunk(1, 0).join();
+        instance.saveChunksToStorage().join();
+
+        assertNotSame(before, world.chunkAt(1, 0));
+    }
+
+    @Test
+    void testSectionChangeDetectedAfterInvalidate() {
+        var world = TestUtil.createWorld(0, 0, 1, 0);
+
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(world));
+        instance.setChunkSupplier(TrackedChunk.Dynamic::new);
+        var chunk = instance.loadChunk(0, 0).join();
+        var before = world.chunkAt(0, 0);
+        synchronized (chunk) {
+            chunk.getSection(0).blockPalette().set(0, 0, 0, Block.GOLD_BLOCK.stateId());
+            chunk.invalidate();
+        }
+        instance.saveChunksToStorage().join();
+
+        assertNotSame(before, world.chunkAt(0, 0));
+    }
+
+    @Test
+    void testBlockEntityChangeDetected() {
+        var world = TestUtil.createWorld(0, 0, 1, 0);
+
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(world));
+        instance.setChunkSupplier(TrackedChunk.Dynamic::new);
+        instance.loadChunk(0, 0).join();
+        var before = world.chunkAt(0, 0);
+        instance.setBlock(0, 10, 0, Block.STONE.withHandler(new TestBlockHandler()));
+        instance.saveChunksToStorage().join();
+
+        assertNotSame(before, world.chunkAt(0, 0));
+        assertEquals(1, world.chunkAt(0, 0).blockEntities().size());
+    }
+
+    @Test
+    void testUnchangedWorldNotRewritten(@TempDir Path tempDir) throws IOException {
+        var path = tempDir.resolve("world.polar");
+        Files.write(path, PolarWriter.write(TestUtil.createWorld(0, 0, 1, 0)));
+        var modified = Files.getLastModifiedTime(path);
+
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(path));
+        instance.setChunkSupplier(TrackedChunk.Dynamic::new);
+        instance.loadChunk(0, 0).join();
+        instance.loadChunk(1, 0).join();
+        instance.saveChunksToStorage().join();
+        assertEquals(modified, Files.getLastModifiedTime(path));
+
+        instance.setBlock(0, 20, 0, Block.GOLD_BLOCK);
+        instance.saveChunksToStorage().join();
+        var world = PolarReader.read(Files.readAllBytes(path));
+        var loadInstance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(world));
+        loadInstance.loadChunk(0, 0).join();
+        assertEquals(Block.GOLD_BLOCK, loadInstance.getBlock(0, 20, 0));
+    }
+
+    private static final class TestBlockHandler implements BlockHandler {
+        @Override
+        public @NotNull Key getKey() {
+            return Key.key("test:handler");
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.coordinate.CoordConversion;
+import net.minestom.server.instance.InstanceContainer;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.world.DimensionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestEncodedChunkCache {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    @Test
+    void testUnchangedChunksReused() {
+        var world = createWorld();
+        var first = PolarWriter.write(world);
+        var encoded = world.encodedChunks().chunks().get(CoordConversion.chunkIndex(1, 0));
+        assertNotNull(encoded);
+
+        var second = PolarWriter.write(world);
+        assertArrayEquals(first, second);
+        assertSame(encoded, world.encodedChunks().chunks().get(CoordConversion.chunkIndex(1, 0)));
+    }
+
+    @Test
+    void testReplacedChunkEncoded() {
+        var world = createWorld();
+        PolarWriter.write(world);
+        var encoded = world.encodedChunks().chunks().get(CoordConversion.chunkIndex(0, 0));
+
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(world));
+        instance.loadChunk(0, 0).join();
+        instance.setBlock(0, 20, 0, Block.GOLD_BLOCK);
+        instance.saveChunksToStorage().join();
+
+        var result = PolarReader.read(PolarWriter.write(world));
+        assertNotSame(encoded, world.encodedChunks().chunks().get(CoordConversion.chunkIndex(0, 0)));
+
+        var loadInstance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(result));
+        loadInstance.loadChunk(0, 0).join();
+        loadInstance.loadChunk(1, 0).join();
+        assertEquals(Block.GOLD_BLOCK, loadInstance.getBlock(0, 20, 0));
+        assertEquals(Block.DIAMOND_BLOCK, loadInstance.getBlock(16, 10, 0));
+    }
+
+    @Test
+    void testReplacedPaletteTablesInvalidateCache() {
+        var world = createWorld();
+        PolarWriter.write(world);
+        var encoded = world.encodedChunks().chunks().get(CoordConversion.chunkIndex(1, 0));
+
+        // Both chunks still use every entry, so add an unused one to be removed
+        world.blockPaletteTable().indexOf("minecraft:gold_block");
+        world.removeUnusedPaletteEntries();
+        var result = PolarReader.read(PolarWriter.write(world));
+        assertNotSame(encoded, world.encodedChunks().chunks().get(CoordConversion.chunkIndex(1, 0)));
+        TestUtil.assertBlocks(result, 0, 0, 1, 0);
+    }
+
+    @Test
+    void testNotCachedByDefault() {
+        var world = createWorld();
+        world.setCacheEncodedChunks(false);
+        PolarWriter.write(world);
+        assertTrue(world.encodedChunks().chunks().isEmpty());
+    }
+
+    @Test
+    void testUncompressedChunksCached() {
+        var world = createWorld();
+        world.setCompression(PolarWorld.CompressionType.ZSTD);
+        var first = PolarWriter.write(world);
+        assertFalse(world.encodedChunks().compressed());
+        var encoded = world.encodedChunks().chunks().get(CoordConversion.chunkIndex(1, 0));
+        assertNotNull(encoded);
+
+        assertArrayEquals(first, PolarWriter.write(world));
+        assertSame(encoded, world.encodedChunks().chunks().get(CoordConversion.chunkIndex(1, 0)));
+    }
+
+    @Test
+    void testCompressionChange() {
+        var world = createWorld();
+        world.setCompression(PolarWorld.CompressionType.ZSTD);
+        PolarWriter.write(world);
+        var encoded = world.encodedChunks().chunks().get(CoordConversion.chunkIndex(1, 0));
+
+        world.setCompression(PolarWorld.CompressionType.ZSTD_CHUNKED);
+        var result = PolarReader.read(PolarWriter.write(world));
+        assertTrue(world.encodedChunks().compressed());
+        assertNotSame(encoded, world.encodedChunks().chunks().get(CoordConversion.chunkIndex(1, 0)));
+        TestUtil.assertBlocks(result, 0, 0, 1, 0);
+    }
+
+    private static PolarWorld createWorld() {
+        var world = TestUtil.createWorld(0, 0, 1, 0);
+        world.setCompression(PolarWorld.CompressionType.ZSTD_CHUNKED);
+        world.setCacheEncodedChunks(true);
+        return world;
+    }
+}
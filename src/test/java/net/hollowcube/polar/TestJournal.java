@@ -0,0 +1,112 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.InstanceContainer;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.world.DimensionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestJournal {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    @Test
+    void testSaveAppendsToJournal(@TempDir Path tempDir) throws IOException {
+        var path = tempDir.resolve("world.polar");
+        var journalPath = PolarJournal.journalPath(path);
+        Files.write(path, PolarWriter.write(new PolarWorld()));
+        var worldBytes = Files.readAllBytes(path);
+
+        var loader = new PolarLoader(path).setJournaled(true);
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, loader);
+        instance.loadChunk(0, 0).join();
+        instance.setBlock(0, 10, 0, Block.STONE);
+        instance.saveChunksToStorage().join();
+        instance.setBlock(1, 10, 0, Block.DIRT);
+        instance.saveChunksToStorage().join();
+
+        // World file is untouched, the changes are only in the journal
+        assertArrayEquals(worldBytes, Files.readAllBytes(path));
+        assertTrue(Files.exists(journalPath));
+        assertTrue(PolarReader.read(worldBytes).chunks().isEmpty());
+
+        var loadInstance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(path));
+        loadInstance.loadChunk(0, 0).join();
+        assertEquals(Block.STONE, loadInstance.getBlock(0, 10, 0));
+        assertEquals(Block.DIRT, loadInstance.getBlock(1, 10, 0));
+    }
+
+    @Test
+    void testCompactJournal(@TempDir Path tempDir) throws IOException {
+        var path = tempDir.resolve("world.polar");
+        var journalPath = PolarJournal.journalPath(path);
+
+        var loader = new PolarLoader(path).setJournaled(true);
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, loader);
+        instance.loadChunk(0, 0).join();
+        instance.setBlock(0, 10, 0, Block.STONE);
+        instance.saveChunksToStorage().join();
+        assertTrue(Files.exists(journalPath));
+
+        loader.compactJournal().join();
+        assertFalse(Files.exists(journalPath));
+
+        var world = PolarReader.read(Files.readAllBytes(path));
+        assertNotNull(world.chunkAt(0, 0));
+    }
+
+    @Test
+    void testIncompleteRecordIgnored(@TempDir Path tempDir) throws IOException {
+        var path = tempDir.resolve("world.polar");
+        var journalPath = PolarJournal.journalPath(path);
+
+        var loader = new PolarLoader(path).setJournaled(true);
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, loader);
+        instance.loadChunk(0, 0).join();
+        instance.setBlock(0, 10, 0, Block.STONE);
+        instance.saveChunksToStorage().join();
+
+        // Simulate a crash in the middle of writing a record
+        Files.write(journalPath, new byte[]{0, 0, 1, 0, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        var reloaded = new PolarLoader(path).setJournaled(true);
+        var loadInstance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, reloaded);
+        loadInstance.loadChunk(0, 0).join();
+        assertEquals(Block.STONE, loadInstance.getBlock(0, 10, 0));
+
+        // The next record replaces the incomplete one
+        loadInstance.setBlock(0, 11, 0, Block.DIRT);
+        loadInstance.saveChunksToStorage().join();
+        var world = new PolarWorld();
+        assertEquals(2, new PolarJournal(journalPath).replay(world));
+        assertNotNull(world.chunkAt(0, 0));
+    }
+
+    @Test
+    void testFullSaveRemovesJournal(@TempDir Path tempDir) throws IOException {
+        var path = tempDir.resolve("world.polar");
+        var journalPath = PolarJournal.journalPath(path);
+
+        var loader = new PolarLoader(path).setJournaled(true);
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, loader);
+        instance.loadChunk(0, 0).join();
+        instance.setBlock(0, 10, 0, Block.STONE);
+        instance.saveChunksToStorage().join();
+
+        loader.setJournaled(false);
+        instance.saveChunksToStorage().join();
+        assertFalse(Files.exists(journalPath));
+        assertNotNull(PolarReader.read(Files.readAllBytes(path)).chunkAt(0, 0));
+    }
+}
@@ -0,0 +1,74 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.InstanceContainer;
+import net.minestom.server.world.DimensionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestLightArrayInterner {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    @Test
+    void testIdenticalArraysShared() {
+        var first = new byte[2048];
+        Arrays.fill(first, (byte) 0x3C);
+        var second = first.clone();
+
+        var canonical = LightArrayInterner.intern(first);
+        assertSame(canonical, LightArrayInterner.intern(second));
+    }
+
+    @Test
+    void testDifferentArraysKept() {
+        var first = new byte[2048];
+        Arrays.fill(first, (byte) 0x12);
+        var second = first.clone();
+        second[100] = 0x13;
+
+        LightArrayInterner.intern(first);
+        var result = LightArrayInterner.intern(second);
+        assertArrayEquals(second, result);
+        assertNotSame(first, result);
+    }
+
+    @Test
+    void testInternedArrayIsCopy() {
+        var light = new byte[2048];
+        Arrays.fill(light, (byte) 0x5A);
+
+        var canonical = LightArrayInterner.intern(light);
+        assertNotSame(light, canonical);
+        light[0] = 0;
+        assertEquals(0x5A, canonical[0]);
+    }
+
+    @Test
+    void testSavedLightUnchangedByLiveLight() {
+        var world = new PolarWorld();
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(world));
+        var chunk = instance.loadChunk(0, 0).join();
+        var light = new byte[PolarReader.LIGHT_DATA_SIZE];
+        light[7] = 0x42;
+        chunk.getSection(0).skyLight().set(light);
+        instance.saveChunksToStorage().join();
+
+        var saved = world.chunkAt(0, 0).sections()[0].skyLight();
+        assertNotNull(saved);
+        // Relighting changes the live array of the section
+        chunk.getSection(0).skyLight().array()[7] = 0x11;
+        assertEquals(0x42, saved[7]);
+    }
+
+    @Test
+    void testNull() {
+        assertNull(LightArrayInterner.intern(null));
+    }
+}
@@ -0,0 +1,69 @@
+package net.hollowcube.polar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestLightEncoding {
+
+    @Test
+    void testUniformLight() {
+        var light = new byte[2048];
+        Arrays.fill(light, (byte) 0x77);
+        assertRoundTrip(light);
+    }
+
+    @Test
+    void testLayeredLight() {
+        // Each layer (16x16 blocks, 128 bytes) has its own value, as is common for sky light
+        var light = new byte[2048];
+        for (int y = 0; y < 16; y++)
+            Arrays.fill(light, y * 128, (y + 1) * 128, (byte) (y | (y << 4)));
+        assertRoundTrip(light);
+    }
+
+    @Test
+    void testRandomLight() {
+        var light = new byte[2048];
+        new Random(1234).nextBytes(light);
+        assertRoundTrip(light);
+    }
+
+    @Test
+    void testCompactLightIsSmaller() {
+        var uniform = new byte[2048];
+        Arrays.fill(uniform, (byte) 0x77);
+        var random = new byte[2048];
+        new Random(1234).nextBytes(random);
+
+        assertTrue(writeWorld(uniform).length < writeWorld(random).length - 2000);
+    }
+
+    private static void assertRoundTrip(byte[] light) {
+        var result = PolarReader.read(writeWorld(light));
+        var section = result.chunkAt(0, 0).sections()[0];
+        assertEquals(PolarSection.LightContent.PRESENT, section.blockLightContent());
+        assertArrayEquals(light, section.blockLight());
+        assertEquals(PolarSection.LightContent.PRESENT, section.skyLightContent());
+        assertArrayEquals(light, section.skyLight());
+    }
+
+    private static byte[] writeWorld(byte[] light) {
+        var sections = new PolarSection[24];
+        Arrays.fill(sections, PolarSection.EMPTY);
+        sections[0] = new PolarSection(
+                new String[]{"minecraft:stone"}, null,
+                new String[]{"minecraft:plains"}, null,
+                PolarSection.LightContent.PRESENT, light,
+                PolarSection.LightContent.PRESENT, light
+        );
+        var chunk = new PolarChunk(0, 0, sections, List.of(), new int[PolarChunk.MAX_HEIGHTMAPS][], new byte[0]);
+        var world = new PolarWorld(PolarWorld.LATEST_VERSION, 0, PolarWorld.CompressionType.NONE,
+                (byte) -4, (byte) 19, new byte[0], List.of(chunk));
+        return PolarWriter.write(world);
+    }
+}
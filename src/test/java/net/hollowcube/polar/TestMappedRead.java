@@ -0,0 +1,65 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TestMappedRead {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PolarWorld.CompressionType.class, names = {"NONE", "ZSTD", "ZSTD_CHUNKED"})
+    void testMappedRead(PolarWorld.CompressionType compression, @TempDir Path tempDir) throws IOException {
+        var world = TestUtil.createWorld(0, 0, 1, 1);
+        world.setCompression(compression);
+
+        var path = tempDir.resolve("world.polar");
+        Files.write(path, PolarWriter.write(world));
+
+        var result = PolarReader.read(path);
+        assertEquals(compression, result.compression());
+        assertEquals(4, result.chunks().size());
+        TestUtil.assertBlocks(result, 0, 0, 1, 1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PolarWorld.CompressionType.class, names = {"NONE", "ZSTD", "ZSTD_CHUNKED"})
+    void testMappedReadStreamed(PolarWorld.CompressionType compression, @TempDir Path tempDir) throws IOException {
+        var world = TestUtil.createWorld(0, 0, 1, 1);
+        world.setCompression(compression);
+
+        var path = tempDir.resolve("world.polar");
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            PolarWriter.write(world, channel);
+        }
+
+        var result = PolarReader.read(path);
+        assertEquals(4, result.chunks().size());
+        TestUtil.assertBlocks(result, 0, 0, 1, 1);
+    }
+
+    @Test
+    void testMappedReadSelector(@TempDir Path tempDir) throws IOException {
+        var world = TestUtil.createWorld(0, 0, 1, 1);
+        world.setCompression(PolarWorld.CompressionType.ZSTD);
+
+        var path = tempDir.resolve("world.polar");
+        Files.write(path, PolarWriter.write(world));
+
+        var result = PolarReader.read(path, PolarDataConverter.NOOP, ChunkSelector.radius(0));
+        assertEquals(1, result.chunks().size());
+    }
+}
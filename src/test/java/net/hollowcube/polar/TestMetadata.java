@@ -0,0 +1,109 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestMetadata {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    @Test
+    void testMetadataFromBytes() {
+        var world = TestUtil.createWorld(-1, 0, 1, 1);
+        world.setCompression(PolarWorld.CompressionType.ZSTD);
+        var data = PolarWriter.write(world);
+
+        // Only the header should be needed
+        var metadata = PolarReader.readMetadata(Arrays.copyOf(data, Math.min(data.length, PolarReader.MAX_HEADER_SIZE)));
+        assertEquals(PolarWorld.LATEST_VERSION, metadata.version());
+        assertEquals(PolarWorld.CompressionType.ZSTD, metadata.compression());
+
+        var summary = metadata.summary();
+        assertNotNull(summary);
+        assertEquals(world.minSection(), summary.minSection());
+        assertEquals(world.maxSection(), summary.maxSection());
+        assertEquals(6, summary.chunkCount());
+        assertEquals(-1, summary.minChunkX());
+        assertEquals(0, summary.minChunkZ());
+        assertEquals(1, summary.maxChunkX());
+        assertEquals(1, summary.maxChunkZ());
+        assertTrue(summary.contentLength() > 0);
+    }
+
+    @Test
+    void testChunkedContentLengthIsDecompressed() {
+        var world = TestUtil.createWorld(-1, 0, 1, 1);
+        long uncompressedLength = PolarReader.readMetadata(PolarWriter.write(world)).summary().contentLength();
+
+        world.setCompression(PolarWorld.CompressionType.ZSTD_CHUNKED);
+        var data = PolarWriter.write(world);
+        long contentLength = PolarReader.readMetadata(data).summary().contentLength();
+
+        // Only the length prefixes of chunks are smaller than in an uncompressed world
+        assertTrue(contentLength > data.length);
+        assertTrue(contentLength <= uncompressedLength);
+    }
+
+    @Test
+    void testMetadataFromStreamedFile(@TempDir Path tempDir) throws IOException {
+        var world = TestUtil.createWorld(-1, 0, 1, 1);
+
+        var path = tempDir.resolve("world.polar");
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            PolarWriter.write(world, channel);
+        }
+
+        var summary = PolarReader.readMetadata(path).summary();
+        assertNotNull(summary);
+        assertEquals(6, summary.chunkCount());
+        assertEquals(0, summary.contentLength());
+    }
+
+    @Test
+    void testMetadataEmptyWorld(@TempDir Path tempDir) throws IOException {
+        var path = tempDir.resolve("world.polar");
+        Files.write(path, PolarWriter.write(new PolarWorld()));
+
+        var summary = PolarReader.readMetadata(path).summary();
+        assertNotNull(summary);
+        assertEquals(0, summary.chunkCount());
+        assertEquals(0, summary.minChunkX());
+        assertEquals(0, summary.maxChunkZ());
+    }
+
+    @Test
+    void testMetadataWithoutSummary() {
+        var data = PolarWriter.write(TestUtil.createWorld(-1, 0, 1, 1), PolarDataConverter.NOOP, null, false);
+        assertNull(PolarReader.readMetadata(data).summary());
+        assertEquals(6, PolarReader.read(data).chunks().size());
+    }
+
+    @Test
+    void testMetadataTruncated() {
+        var data = PolarWriter.write(TestUtil.createWorld(-1, 0, 1, 1));
+        assertThrows(PolarReader.Error.class, () -> PolarReader.readMetadata(Arrays.copyOf(data, 8)));
+        assertThrows(PolarReader.Error.class, () -> PolarReader.readMetadata(new byte[0]));
+    }
+
+    @Test
+    void testMetadataOldVersion() throws IOException {
+        try (var is = getClass().getResourceAsStream("/emclobby.polar")) {
+            assertNotNull(is);
+            var metadata = PolarReader.readMetadata(is.readAllBytes());
+            assertTrue(metadata.version() < PolarWorld.VERSION_SUMMARY);
+            assertNull(metadata.summary());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package net.hollowcube.polar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestPackedSection {
+
+    @Test
+    void testPackedDataRoundTrip() {
+        var blockData = new int[PolarSection.BLOCK_PALETTE_SIZE];
+        for (int i = 0; i < blockData.length; i++) blockData[i] = i % 3;
+        var biomeData = new int[PolarSection.BIOME_PALETTE_SIZE];
+        for (int i = 0; i < biomeData.length; i++) biomeData[i] = i % 2;
+
+        var sections = new PolarSection[24];
+        for (int i = 0; i < sections.length; i++) sections[i] = new PolarSection();
+        sections[4] = new PolarSection(
+                new String[]{"minecraft:stone", "minecraft:dirt", "minecraft:glass"}, blockData,
+                new String[]{"minecraft:plains", "minecraft:desert"}, biomeData,
+                PolarSection.LightContent.MISSING, null,
+                PolarSection.LightContent.MISSING, null
+        );
+        var chunk = new PolarChunk(0, 0, sections, List.of(), new int[PolarChunk.MAX_HEIGHTMAPS][], new byte[0]);
+        var world = new PolarWorld(PolarWorld.LATEST_VERSION, 0, PolarWorld.CompressionType.NONE,
+                (byte) -4, (byte) 19, new byte[0], List.of(chunk));
+
+        var bytes = PolarWriter.write(world);
+        var result = PolarReader.read(bytes);
+        var section = result.chunkAt(0, 0).sections()[4];
+        assertArrayEquals(blockData, section.blockData());
+        assertArrayEquals(biomeData, section.biomeData());
+
+        // Packed data is written back as is
+        assertArrayEquals(bytes, PolarWriter.write(result));
+    }
+
+    @Test
+    void testSingleEntryPaletteCopied() {
+        var palette = new String[]{"test:single_entry"};
+        var section = new PolarSection(
+                palette, null, new String[]{"minecraft:plains"}, null,
+                PolarSection.LightContent.MISSING, null,
+                PolarSection.LightContent.MISSING, null
+        );
+        palette[0] = "minecraft:stone";
+        assertEquals("test:single_entry", section.blockPalette()[0]);
+    }
+
+    @Test
+    void testHeightmapsExpandedToFullTable() {
+        var heightmaps = new int[PolarChunk.MAX_HEIGHTMAPS][];
+        heightmaps[1] = new int[PolarChunk.HEIGHTMAP_SIZE];
+        var chunk = new PolarChunk(0, 0, new PolarSection[0], List.of(), heightmaps, new byte[0]);
+        assertEquals(PolarChunk.MAX_HEIGHTMAPS, chunk.heightmaps().length);
+        assertSame(heightmaps[1], chunk.heightmaps()[1]);
+        assertNull(chunk.heightmap(PolarChunk.MAX_HEIGHTMAPS - 1));
+
+        var empty = new PolarChunk(0, 0, new PolarSection[0], List.of(), new int[0][], new byte[0]);
+        assertEquals(PolarChunk.MAX_HEIGHTMAPS, empty.heightmaps().length);
+    }
+}
@@ -0,0 +1,33 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestPaletteCache {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    @Test
+    void testIdenticalPalettesShared() {
+        var world = TestUtil.createWorld(0, 0, 1, 0);
+        var result = PolarReader.read(PolarWriter.write(world));
+        var first = result.chunkAt(0, 0).sections()[4].blockPalette();
+        var second = result.chunkAt(1, 0).sections()[4].blockPalette();
+        assertEquals(2, first.length);
+        assertSame(first, second);
+    }
+
+    @Test
+    void testLegacyPaletteEntriesInterned() {
+        var cache = new PolarReader.PaletteCache();
+        var first = cache.palette(new String[]{new String("minecraft:stone"), "minecraft:dirt"});
+        var second = cache.palette(new String[]{"minecraft:dirt", new String("minecraft:stone")});
+        assertNotSame(first, second);
+        assertSame(first[0], second[1]);
+        assertSame(first, cache.palette(new String[]{"minecraft:stone", "minecraft:dirt"}));
+    }
+}
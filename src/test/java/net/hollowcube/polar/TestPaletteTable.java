@@ -0,0 +1,95 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.InstanceContainer;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.world.DimensionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestPaletteTable {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    @Test
+    void testPaletteEntriesShared() {
+        var world = new PolarWorld();
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(world));
+        for (int x = 0; x < 2; x++) {
+            instance.loadChunk(x, 0).join();
+            instance.setBlock(x * 16, 0, 0, Block.STONE);
+            instance.setBlock(x * 16 + 1, 0, 0, Block.OAK_LOG.withProperty("axis", "x"));
+        }
+        instance.saveChunksToStorage().join();
+
+        var result = PolarReader.read(PolarWriter.write(world));
+        var palette0 = result.chunkAt(0, 0).sections()[4].blockPalette();
+        var palette1 = result.chunkAt(1, 0).sections()[4].blockPalette();
+        assertArrayEquals(palette0, palette1);
+        for (int i = 0; i < palette0.length; i++) {
+            // Both sections refer to the same table entry
+            assertSame(palette0[i], palette1[i]);
+        }
+
+        var loadInstance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(result));
+        loadInstance.loadChunk(1, 0).join();
+        assertEquals(Block.STONE, loadInstance.getBlock(16, 0, 0));
+        assertEquals(Block.OAK_LOG.withProperty("axis", "x"), loadInstance.getBlock(17, 0, 0));
+    }
+
+    @Test
+    void testTableIsAppendOnly() {
+        var table = new PaletteTable(new String[]{"minecraft:air", "minecraft:stone"});
+        var copy = new PaletteTable(table.toArray());
+
+        assertEquals(1, table.indexOf("minecraft:stone"));
+        assertEquals(2, table.indexOf("minecraft:dirt"));
+        assertEquals(0, table.indexOf("minecraft:air"));
+        assertTrue(table.startsWith(copy));
+        assertFalse(copy.startsWith(table));
+    }
+
+    @Test
+    void testFrozenTableUnchanged() {
+        var table = new PaletteTable(new String[]{"minecraft:air", "minecraft:stone"});
+        var frozen = table.freeze();
+        table.indexOf("minecraft:dirt");
+
+        assertEquals(1, frozen.indexOf("minecraft:stone"));
+        assertEquals(2, frozen.entries().length);
+        assertThrows(IllegalStateException.class, () -> frozen.indexOf("minecraft:dirt"));
+    }
+
+    @Test
+    void testUnusedEntriesRemoved() {
+        var world = new PolarWorld();
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(world));
+        instance.loadChunk(0, 0).join();
+        instance.setBlock(0, 0, 0, Block.GOLD_BLOCK);
+        instance.setBlock(1, 0, 0, Block.STONE);
+        instance.saveChunksToStorage().join();
+        PolarWriter.write(world);
+        assertTrue(Arrays.asList(world.blockPaletteTable().toArray()).contains("minecraft:gold_block"));
+
+        instance.setBlock(0, 0, 0, Block.AIR);
+        instance.saveChunksToStorage().join();
+        // Writing never changes the tables of the world
+        var table = world.blockPaletteTable();
+        PolarWriter.write(world);
+        assertSame(table, world.blockPaletteTable());
+
+        world.removeUnusedPaletteEntries();
+        var result = PolarReader.read(PolarWriter.write(world));
+
+        var entries = Arrays.asList(result.blockPaletteTable().toArray());
+        assertFalse(entries.contains("minecraft:gold_block"));
+        assertTrue(entries.contains("minecraft:stone"));
+        assertTrue(Arrays.asList(result.chunkAt(0, 0).sections()[4].blockPalette()).contains("minecraft:stone"));
+    }
+}
@@ -0,0 +1,86 @@
+package net.hollowcube.polar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestPaletteUtil {
+
+    @Test
+    void testPackMatchesReference() {
+        var random = new Random(42);
+        for (int bitsPerEntry = 1; bitsPerEntry <= 32; bitsPerEntry++) {
+            for (int length : new int[]{1, 7, 64, 256, 4096}) {
+                var data = randomData(random, length, bitsPerEntry);
+                assertArrayEquals(referencePack(data, bitsPerEntry), PaletteUtil.pack(data, bitsPerEntry),
+                        "bitsPerEntry=" + bitsPerEntry + ", length=" + length);
+            }
+        }
+    }
+
+    @Test
+    void testUnpackMatchesReference() {
+        var random = new Random(42);
+        for (int bitsPerEntry = 1; bitsPerEntry <= 32; bitsPerEntry++) {
+            for (int length : new int[]{1, 7, 64, 256, 4096}) {
+                var packed = referencePack(randomData(random, length, bitsPerEntry), bitsPerEntry);
+
+                var expected = new int[length];
+                referenceUnpack(expected, packed, bitsPerEntry);
+                var actual = new int[length];
+                PaletteUtil.unpack(actual, packed, bitsPerEntry);
+                assertArrayEquals(expected, actual, "bitsPerEntry=" + bitsPerEntry + ", length=" + length);
+            }
+        }
+    }
+
+    @Test
+    void testBitsPerEntry() {
+        for (int paletteSize = 1; paletteSize <= PolarSection.BLOCK_PALETTE_SIZE; paletteSize++) {
+            var expected = Math.max((int) Math.ceil(Math.log(paletteSize) / Math.log(2)), 1);
+            assertEquals(expected, PolarSection.bitsPerEntry(paletteSize), "paletteSize=" + paletteSize);
+        }
+    }
+
+    private static int[] randomData(Random random, int length, int bitsPerEntry) {
+        var data = new int[length];
+        for (int i = 0; i < length; i++)
+            data[i] = (int) (random.nextLong() & ((1L << bitsPerEntry) - 1));
+        return data;
+    }
+
+    // The original floating point implementations, which define the format
+
+    private static long[] referencePack(int[] ints, int bitsPerEntry) {
+        int intsPerLong = (int) Math.floor(64d / bitsPerEntry);
+        long[] longs = new long[(int) Math.ceil(ints.length / (double) intsPerLong)];
+
+        long mask = (1L << bitsPerEntry) - 1L;
+        for (int i = 0; i < longs.length; i++) {
+            for (int intIndex = 0; intIndex < intsPerLong; intIndex++) {
+                int bitIndex = intIndex * bitsPerEntry;
+                int intActualIndex = intIndex + i * intsPerLong;
+                if (intActualIndex < ints.length) {
+                    longs[i] |= (ints[intActualIndex] & mask) << bitIndex;
+                }
+            }
+        }
+
+        return longs;
+    }
+
+    private static void referenceUnpack(int[] out, long[] in, int bitsPerEntry) {
+        var intsPerLong = Math.floor(64d / bitsPerEntry);
+        var intsPerLongCeil = (int) Math.ceil(intsPerLong);
+
+        long mask = (1L << bitsPerEntry) - 1L;
+        for (int i = 0; i < out.length; i++) {
+            int longIndex = i / intsPerLongCeil;
+            int subIndex = i % intsPerLongCeil;
+
+            out[i] = (int) ((in[longIndex] >>> (bitsPerEntry * subIndex)) & mask);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.block.Block;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TestParallelSave {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    private static final TestUtil.ChunkBlocks BLOCKS = (setter, x, z) -> {
+        TestUtil.DIAMOND.place(setter, x, z);
+        setter.setBlock(x * 16 + 1, 10, z * 16, x % 2 == 0 ? Block.GOLD_BLOCK : Block.IRON_BLOCK);
+    };
+
+    @Test
+    void testParallelSaveRoundTrip() {
+        var world = new PolarWorld();
+        world.setCompression(PolarWorld.CompressionType.ZSTD_CHUNKED);
+        TestUtil.createWorld(new PolarLoader(world).setParallel(true), 0, 0, 7, 7, BLOCKS);
+
+        var result = PolarReader.read(PolarWriter.write(world));
+        assertEquals(64, result.chunkCount());
+        TestUtil.assertBlocks(result, 0, 0, 7, 7, BLOCKS);
+    }
+}
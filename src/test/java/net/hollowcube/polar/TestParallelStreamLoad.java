@@ -0,0 +1,46 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.InstanceContainer;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.world.DimensionType;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class TestParallelStreamLoad {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    private static final TestUtil.ChunkBlocks BLOCKS = (setter, x, z) -> {
+        TestUtil.DIAMOND.place(setter, x, z);
+        setter.setBlock(x * 16 + 1, 10, z * 16, Block.CHEST);
+    };
+
+    @ParameterizedTest
+    @EnumSource(value = PolarWorld.CompressionType.class, names = {"NONE", "ZSTD", "ZSTD_CHUNKED"})
+    void testParallelStreamLoad(PolarWorld.CompressionType compression) {
+        var world = TestUtil.createWorld(new PolarLoader(new PolarWorld()), 0, 0, 9, 9, BLOCKS);
+        world.setCompression(compression);
+        var worldBytes = PolarWriter.write(world);
+
+        var loadInstance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD);
+        PolarLoader.streamLoad(loadInstance, Channels.newChannel(new ByteArrayInputStream(worldBytes)),
+                worldBytes.length, null, null, false, true).join();
+
+        for (int x = 0; x < 10; x++) {
+            for (int z = 0; z < 10; z++) {
+                assertNotNull(loadInstance.getChunk(x, z));
+            }
+        }
+        TestUtil.assertBlocks(loadInstance, 0, 0, 9, 9, BLOCKS);
+    }
+}
@@ -1,9 +1,15 @@
 package net.hollowcube.polar;
 
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -51,4 +57,41 @@ class TestPolarReader {
 
     }
 
+    @Test
+    void testChunkedConvertsOnCallingThread() {
+        var world = new PolarWorld();
+        world.setCompression(PolarWorld.CompressionType.ZSTD_CHUNKED);
+        var emptySections = new PolarSection[24];
+        Arrays.fill(emptySections, new PolarSection());
+        for (int x = 0; x < 8; x++) {
+            for (int z = 0; z < 8; z++) {
+                var blockEntity = new PolarChunk.BlockEntity(0, 0, 0, "minecraft:chest", CompoundBinaryTag.empty());
+                world.updateChunkAt(x, z, new PolarChunk(x, z, emptySections, List.of(blockEntity),
+                        new int[0][], new byte[0]));
+            }
+        }
+        var raw = PolarWriter.write(world);
+
+        var threads = ConcurrentHashMap.<Thread>newKeySet();
+        var conversions = new AtomicInteger();
+        var converter = new PolarDataConverter() {
+            @Override
+            public int dataVersion() {
+                return Integer.MAX_VALUE;
+            }
+
+            @Override
+            public @NotNull Map.Entry<String, CompoundBinaryTag> convertBlockEntityData(
+                    @NotNull String id, @NotNull CompoundBinaryTag data, int fromVersion, int toVersion) {
+                threads.add(Thread.currentThread());
+                conversions.incrementAndGet();
+                return Map.entry(id, data);
+            }
+        };
+        PolarReader.read(raw, converter);
+
+        assertEquals(64, conversions.get());
+        assertEquals(Set.of(Thread.currentThread()), threads);
+    }
+
 }
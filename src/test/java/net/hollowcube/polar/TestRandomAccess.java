@@ -0,0 +1,92 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.InstanceContainer;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.world.DimensionType;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestRandomAccess {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    @Test
+    void testLoadSingleChunk(@TempDir Path tempDir) throws IOException {
+        var path = tempDir.resolve("world.polar");
+        Files.write(path, PolarWriter.write(createWorld(PolarWorld.CompressionType.NONE)));
+
+        var loader = PolarLoader.randomAccess(path);
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, loader);
+        instance.loadChunk(2, 1).join();
+
+        assertEquals(Block.DIAMOND_BLOCK, instance.getBlock(2 * 16, 10, 16));
+        assertTrue(loader.world().chunks().isEmpty());
+    }
+
+    @Test
+    void testLoadSingleChunkCompressedPerChunk(@TempDir Path tempDir) throws IOException {
+        var path = tempDir.resolve("world.polar");
+        Files.write(path, PolarWriter.write(createWorld(PolarWorld.CompressionType.ZSTD_CHUNKED)));
+
+        var loader = PolarLoader.randomAccess(path);
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, loader);
+        instance.loadChunk(1, 2).join();
+
+        assertEquals(Block.DIAMOND_BLOCK, instance.getBlock(16, 10, 2 * 16));
+    }
+
+    @Test
+    void testReadCompressedPerChunk() {
+        var world = PolarReader.read(PolarWriter.write(createWorld(PolarWorld.CompressionType.ZSTD_CHUNKED)));
+        assertEquals(PolarWorld.CompressionType.ZSTD_CHUNKED, world.compression());
+        assertEquals(9, world.chunks().size());
+        assertNotNull(world.chunkAt(2, 2));
+    }
+
+    @Test
+    void testSaveKeepsUnloadedChunks(@TempDir Path tempDir) throws IOException {
+        var path = tempDir.resolve("world.polar");
+        Files.write(path, PolarWriter.write(createWorld(PolarWorld.CompressionType.ZSTD_CHUNKED)));
+
+        var loader = PolarLoader.randomAccess(path);
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, loader);
+        instance.loadChunk(0, 0).join();
+        instance.setBlock(0, 20, 0, Block.GOLD_BLOCK);
+        instance.saveChunksToStorage().join();
+
+        var savedWorld = PolarReader.read(Files.readAllBytes(path));
+        assertEquals(9, savedWorld.chunks().size());
+
+        var loadInstance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(savedWorld));
+        loadInstance.loadChunk(0, 0).join();
+        loadInstance.loadChunk(2, 2).join();
+        assertEquals(Block.GOLD_BLOCK, loadInstance.getBlock(0, 20, 0));
+        assertEquals(Block.DIAMOND_BLOCK, loadInstance.getBlock(2 * 16, 10, 2 * 16));
+    }
+
+    @Test
+    void testRejectSingleFrameCompression(@TempDir Path tempDir) throws IOException {
+        var path = tempDir.resolve("world.polar");
+        Files.write(path, PolarWriter.write(createWorld(PolarWorld.CompressionType.ZSTD)));
+
+        var e = assertThrows(PolarReader.Error.class, () -> PolarLoader.randomAccess(path));
+        assertEquals("Random access is not supported for ZSTD compression, use ZSTD_CHUNKED instead", e.getMessage());
+    }
+
+    private static @NotNull PolarWorld createWorld(@NotNull PolarWorld.CompressionType compression) {
+        var world = TestUtil.createWorld(0, 0, 2, 2);
+        world.setCompression(compression);
+        return world;
+    }
+}
@@ -0,0 +1,45 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.world.biome.Biome;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TestRegistryCache {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    @Test
+    void testBlockStateId() {
+        var state = Block.OAK_STAIRS.withProperty("facing", "east");
+        assertEquals(state.stateId(), RegistryCache.blockStateId("minecraft:oak_stairs[facing=east]"));
+        assertEquals(state.stateId(), RegistryCache.blockStateId("minecraft:oak_stairs[facing=east]"));
+        assertEquals(Block.STONE.stateId(), RegistryCache.blockStateId("minecraft:stone"));
+    }
+
+    @Test
+    void testBlockStateName() {
+        var state = Block.OAK_STAIRS.withProperty("facing", "east");
+        var name = RegistryCache.blockStateName(state.stateId());
+        assertSame(name, RegistryCache.blockStateName(state.stateId()));
+        assertEquals(state.stateId(), RegistryCache.blockStateId(name));
+        assertEquals("minecraft:stone", RegistryCache.blockStateName(Block.STONE.stateId()));
+    }
+
+    @Test
+    void testInvalidBlockState() {
+        assertEquals(-1, RegistryCache.blockStateId("minecraft:not_a_block"));
+        assertEquals(-1, RegistryCache.blockStateId("minecraft:not_a_block"));
+    }
+
+    @Test
+    void testBiomeId() {
+        assertEquals(PolarWorldAccess.DEFAULT.getBiomeId(Biome.PLAINS.name()), RegistryCache.biomeId(Biome.PLAINS.name()));
+        assertEquals(-1, RegistryCache.biomeId("test:missing"));
+    }
+}
@@ -0,0 +1,55 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.MinecraftServer;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestStreamingWriter {
+
+    static {
+        MinecraftServer.init();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PolarWorld.CompressionType.class, names = {"NONE", "ZSTD", "ZSTD_CHUNKED"})
+    void testStreamedWorldRoundTrip(PolarWorld.CompressionType compression) throws IOException {
+        var world = TestUtil.createWorld(0, 0, 1, 1);
+        world.setCompression(compression);
+
+        var out = new ByteArrayOutputStream();
+        PolarWriter.write(world, Channels.newChannel(out));
+        var result = PolarReader.read(out.toByteArray());
+
+        assertEquals(compression, result.compression());
+        assertEquals(4, result.chunks().size());
+        TestUtil.assertBlocks(result, 0, 0, 1, 1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PolarWorld.CompressionType.class, names = {"NONE", "ZSTD_CHUNKED"})
+    void testStreamedWorldRandomAccess(PolarWorld.CompressionType compression, @TempDir Path tempDir) throws IOException {
+        var world = TestUtil.createWorld(0, 0, 1, 1);
+        world.setCompression(compression);
+
+        var path = tempDir.resolve("world.polar");
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            PolarWriter.write(world, channel);
+        }
+
+        try (var reader = RandomAccessPolarReader.open(path, PolarDataConverter.NOOP)) {
+            assertNotNull(reader);
+            assertNotNull(reader.readChunk(1, 1));
+            assertNull(reader.readChunk(5, 5));
+        }
+    }
+}
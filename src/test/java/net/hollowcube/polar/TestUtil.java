@@ -0,0 +1,87 @@
+package net.hollowcube.polar;
+
+import net.minestom.server.instance.Instance;
+import net.minestom.server.instance.InstanceContainer;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.world.DimensionType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Shared world fixtures for the tests. Chunk ranges are inclusive.
+ */
+final class TestUtil {
+
+    /**
+     * Places the blocks of a single chunk. Used both to fill a world and to check it afterward.
+     */
+    @FunctionalInterface
+    interface ChunkBlocks {
+        void place(@NotNull Block.Setter setter, int chunkX, int chunkZ);
+    }
+
+    /**
+     * A diamond block at y=10 in the corner of each chunk.
+     */
+    static final ChunkBlocks DIAMOND = (setter, chunkX, chunkZ) ->
+            setter.setBlock(chunkX * 16, 10, chunkZ * 16, Block.DIAMOND_BLOCK);
+
+    static @NotNull PolarWorld createWorld(int minX, int minZ, int maxX, int maxZ) {
+        return createWorld(new PolarLoader(new PolarWorld()), minX, minZ, maxX, maxZ, DIAMOND);
+    }
+
+    /**
+     * Loads each chunk in the range through the given loader, places the blocks and saves them back.
+     */
+    static @NotNull PolarWorld createWorld(
+            @NotNull PolarLoader loader, int minX, int minZ, int maxX, int maxZ,
+            @NotNull ChunkBlocks blocks
+    ) {
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, loader);
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                instance.loadChunk(x, z).join();
+                blocks.place(instance, x, z);
+            }
+        }
+        instance.saveChunksToStorage().join();
+        return loader.world();
+    }
+
+    static void assertBlocks(@NotNull PolarWorld world, int minX, int minZ, int maxX, int maxZ) {
+        assertBlocks(world, minX, minZ, maxX, maxZ, DIAMOND);
+    }
+
+    static void assertBlocks(
+            @NotNull PolarWorld world, int minX, int minZ, int maxX, int maxZ,
+            @NotNull ChunkBlocks blocks
+    ) {
+        var instance = new InstanceContainer(UUID.randomUUID(), DimensionType.OVERWORLD, new PolarLoader(world));
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                instance.loadChunk(x, z).join();
+            }
+        }
+        assertBlocks(instance, minX, minZ, maxX, maxZ, blocks);
+    }
+
+    /**
+     * Checks the blocks of chunks which are already loaded in the instance.
+     */
+    static void assertBlocks(
+            @NotNull Instance instance, int minX, int minZ, int maxX, int maxZ,
+            @NotNull ChunkBlocks blocks
+    ) {
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                blocks.place((bx, by, bz, block) -> assertEquals(block, instance.getBlock(bx, by, bz)), x, z);
+            }
+        }
+    }
+
+    private TestUtil() {
+    }
+}